@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class EventExecutorConfig {
+
+    @Value("${event.executor.core-pool-size:2}")
+    private int corePoolSize;
+
+    @Value("${event.executor.max-pool-size:4}")
+    private int maxPoolSize;
+
+    @Value("${event.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    /**
+     * 커밋 이후 부가 작업(알림 등)을 처리하는 제한된 크기의 실행기
+     * 큐가 가득 차면 작업을 거절하고, 아웃박스 재처리 스케줄러가 이어서 처리
+     */
+    @Bean
+    public ThreadPoolTaskExecutor eventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("event-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
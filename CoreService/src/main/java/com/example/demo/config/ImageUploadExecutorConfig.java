@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ImageUploadExecutorConfig {
+
+    @Value("${upload.executor.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${upload.executor.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${upload.executor.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${upload.variant-executor.pool-size:2}")
+    private int variantPoolSize;
+
+    @Value("${upload.variant-executor.queue-capacity:50}")
+    private int variantQueueCapacity;
+
+    /**
+     * 이미지 파일 저장(디스크 I/O)을 병렬로 처리하는 제한된 크기의 실행기
+     * 큐가 가득 차면 요청 스레드에서 직접 저장하여 업로드가 유실되지 않도록 함
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 업로드 후 파생 이미지(thumb/medium)를 미리 만드는 작은 실행기 (디코딩/리사이즈는 CPU 를 많이 씀)
+     * 업로드 실행기와 분리해 업로드 지연에 영향을 주지 않고, 큐가 가득 차면 버림 (첫 요청 때 생성됨)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(variantPoolSize);
+        executor.setMaxPoolSize(variantPoolSize);
+        executor.setQueueCapacity(variantQueueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
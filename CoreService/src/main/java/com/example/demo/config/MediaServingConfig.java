@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import com.example.demo.storage.FileChannelCache;
+import com.example.demo.storage.LocalMediaServlet;
+import com.example.demo.storage.LocalMediaStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+@Configuration
+@ConditionalOnProperty(name = "media.store", havingValue = "local", matchIfMissing = true)
+public class MediaServingConfig {
+
+    @Value("${media.serving.open-file-cache-size:256}")
+    private long openFileCacheSize;
+
+    @Value("${media.serving.open-file-idle-seconds:60}")
+    private long openFileIdleSeconds;
+
+    @Value("${media.serving.sendfile-threshold-bytes:49152}")
+    private long sendfileThreshold;
+
+    /**
+     * 업로드 미디어 경로를 DispatcherServlet 대신 전용 서블릿이 처리하도록 등록
+     * (Spring Security 필터는 그대로 적용됨)
+     */
+    @Bean
+    public ServletRegistrationBean<LocalMediaServlet> localMediaServlet(LocalMediaStore localMediaStore) {
+        FileChannelCache channelCache = new FileChannelCache(openFileCacheSize, Duration.ofSeconds(openFileIdleSeconds));
+        String[] urlMappings = Arrays.stream(WebConfig.MEDIA_DIRECTORIES)
+                .map(directory -> "/" + directory + "/*")
+                .toArray(String[]::new);
+
+        ServletRegistrationBean<LocalMediaServlet> registration = new ServletRegistrationBean<>(
+                new LocalMediaServlet(localMediaStore, channelCache, sendfileThreshold), urlMappings);
+        registration.setName("localMediaServlet");
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
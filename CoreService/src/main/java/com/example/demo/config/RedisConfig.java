@@ -2,6 +2,7 @@ package com.example.demo.config;
 
 import com.example.demo.listener.NotificationSubscriber;
 import com.example.demo.listener.RedisMessageListener;
+import com.example.demo.service.Market.ProductDetailCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +39,9 @@ public class RedisConfig {
     @Value("${notification.redis.topic.name:notification}")
     private String notificationTopicName;
 
+    @Value("${market.product-cache.redis.topic.name:product-cache-invalidation}")
+    private String productCacheTopicName;
+
     /**
      * Redis ConnectionFactory 설정
      */
@@ -81,7 +85,8 @@ public class RedisConfig {
     public RedisMessageListenerContainer redisMessageListenerContainer(
             RedisConnectionFactory connectionFactory,
             MessageListenerAdapter chatListenerAdapter,
-            NotificationSubscriber notificationSubscriber) {
+            NotificationSubscriber notificationSubscriber,
+            ProductDetailCache productDetailCache) {
 
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
@@ -92,6 +97,9 @@ public class RedisConfig {
         // 알림 메시지 리스너
         container.addMessageListener(notificationSubscriber, notificationChannelTopic());
 
+        // 상품 상세 캐시 무효화 리스너
+        container.addMessageListener(productDetailCache, productCacheChannelTopic());
+
         return container;
     }
 
@@ -118,4 +126,12 @@ public class RedisConfig {
     public ChannelTopic notificationChannelTopic() {
         return new ChannelTopic(notificationTopicName);
     }
+
+    /**
+     * Redis 채널 설정 (상품 상세 캐시 무효화)
+     */
+    @Bean
+    public ChannelTopic productCacheChannelTopic() {
+        return new ChannelTopic(productCacheTopicName);
+    }
 }
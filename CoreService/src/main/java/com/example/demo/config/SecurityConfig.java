@@ -42,6 +42,7 @@ public class SecurityConfig {
                                 "/chat-images/**",
                                 "/uploads/**",
                                 "/board-files/**", // 게시판 이미지 접근 허용
+                                "/board-images/**",
                                 // 인증 없이 접근 가능한 엔드포인트
                                 "/api/core/auth/signup",
                                 "/api/core/auth/login",
@@ -58,6 +59,8 @@ public class SecurityConfig {
                                 "/api/core/market/products/requests/approved",
                                 "/api/core/market/products/all",
                                 "/api/core/market/products/all/filter",
+                                "/api/core/market/products/search",
+                                "/api/core/market/products/feed",
                                 "/api/core/market/products/images/**",
                                 "/api/core/market/products/{id}",
                                 // WebSocket 관련 허용
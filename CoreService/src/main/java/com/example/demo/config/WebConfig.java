@@ -1,28 +1,12 @@
 package com.example.demo.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // 프로필 이미지를 접근할 수 있도록 리소스 핸들러 등록
-        registry.addResourceHandler("/profile-images/**")
-                .addResourceLocations("classpath:/static/profile-images/");
-        
-        // 채팅 이미지를 접근할 수 있도록 리소스 핸들러 설정
-        registry.addResourceHandler("/chat-images/**")
-                .addResourceLocations("classpath:/static/chat-images/");
-        
-        // 게시판 파일을 접근할 수 있도록 리소스 핸들러 설정
-        registry.addResourceHandler("/board-files/**")
-                .addResourceLocations("classpath:/static/board-files/");
-        
-        // 기존 업로드 디렉토리 설정 유지
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + System.getProperty("user.dir") + "/src/main/resources/static/uploads/");
-    }  
+
+    // 업로드 미디어 웹 경로 (MediaStore key 의 첫 디렉토리와 같음)
+    // 로컬 저장소는 MediaServingConfig 의 전용 서블릿, S3 저장소는 MediaRedirectController 가 처리
+    public static final String[] MEDIA_DIRECTORIES = {"profile-images", "chat-images", "board-files", "board-images", "uploads"};
 }
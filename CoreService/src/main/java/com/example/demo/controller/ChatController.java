@@ -4,11 +4,12 @@ import com.example.demo.dto.chat.ChatRoomRequest;
 import com.example.demo.dto.chat.ChatRoomResponse;
 import com.example.demo.dto.response.ApiResponse;
 import com.example.demo.mapper.ChatRoomMapper;
-import com.example.demo.mapper.Market.ProductMapper;
 import com.example.demo.mapper.Market.ProductRequestMapper;
 import com.example.demo.model.chat.ChatRoom;
 import com.example.demo.service.ChatService;
+import com.example.demo.service.ChatUnreadCounter;
 import com.example.demo.service.NotificationService;
+import com.example.demo.service.Market.ProductService;
 import com.example.demo.util.TokenUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,9 +25,10 @@ public class ChatController {
     private final ChatService chatService;
     private final TokenUtils tokenUtils;
     private final ChatRoomMapper chatRoomMapper;
-    private final ProductMapper productMapper;
     private final ProductRequestMapper productRequestMapper;
     private final NotificationService notificationService;
+    private final ProductService productService;
+    private final ChatUnreadCounter chatUnreadCounter;
 
     /**
      * 채팅방 생성/조회
@@ -91,6 +93,22 @@ public class ChatController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * 전체 읽지 않은 메시지 수 조회 (배지용)
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<ApiResponse<?>> getUnreadCount(
+            @RequestHeader("Authorization") String token) {
+        
+        String email = tokenUtils.getEmailFromAuthHeader(token);
+        
+        if (email == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("인증되지 않은 요청입니다.", "401"));
+        }
+        
+        return ResponseEntity.ok(ApiResponse.success(chatUnreadCounter.getTotalUnreadCount(email)));
+    }
+
     /**
      * 특정 채팅방 상세 정보 조회
      */
@@ -154,14 +172,14 @@ public class ChatController {
                 return ResponseEntity.status(404).body(ApiResponse.error("해당 요청을 찾을 수 없습니다.", "404"));
             }
             
-            // 요청 승인 처리
-            productMapper.updateRequestApprovalStatus(requestId, "승인");
-            
-            // 현재 모집 인원 증가
-            productMapper.increaseCurrentParticipants(productId);
-            
-            // 모집 인원 충족 시 모집 마감 처리
-            productMapper.updateProductVisibility(productId);
+            // 요청 승인 + 모집 인원 확보 (모집 인원 충족 시 같은 처리에서 모집 마감)
+            ProductService.AdmissionResult admission = productService.admitRequest(productId, requestId);
+            if (admission == ProductService.AdmissionResult.ALREADY_PROCESSED) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("이미 처리된 요청입니다.", "400"));
+            }
+            if (admission == ProductService.AdmissionResult.FULL) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("최대 참여 인원을 초과하여 승인할 수 없습니다.", "400"));
+            }
 
             // 알림 추가
             String message = String.format("\"%s\" 상품에 대한 함께하기 요청이 승인되었습니다!", productId);
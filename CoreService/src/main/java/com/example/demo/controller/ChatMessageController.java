@@ -6,9 +6,8 @@ import com.example.demo.dto.response.ApiResponse;
 import com.example.demo.mapper.ChatRoomMapper;
 import com.example.demo.model.chat.ChatMessage;
 import com.example.demo.model.chat.ChatRoom;
-import com.example.demo.mapper.UserMapper;
-import com.example.demo.model.User;
 import com.example.demo.service.ChatMessageService;
+import com.example.demo.service.ChatRecentMessageCache;
 import com.example.demo.service.NotificationService;
 import com.example.demo.service.UserService;
 import com.example.demo.util.TokenUtils;
@@ -36,7 +35,7 @@ public class ChatMessageController {
     private final SimpMessagingTemplate messagingTemplate;
     private final NotificationService notificationService;
     private final ChatRoomMapper chatRoomMapper;
-    private final UserMapper userMapper;
+    private final ChatRecentMessageCache chatRecentMessageCache;
 
     /**
      * WebSocket을 통한 메시지 전송
@@ -67,9 +66,8 @@ public class ChatMessageController {
                 chatMessage
             );
 
-            // UserMapper를 직접 사용하여 사용자 정보 조회
-            User sender = userMapper.findByEmail(senderEmail);
-            String senderNickname = sender != null ? sender.getNickname() : "알 수 없음";
+            // 발신자 닉네임은 전송 시 설정된 값 사용
+            String senderNickname = chatMessage.getSenderName() != null ? chatMessage.getSenderName() : "알 수 없음";
 
             // 알림 메시지 구성
             String notificationChatMessage = String.format("[%s] %s: %s",
@@ -141,13 +139,16 @@ public class ChatMessageController {
 
     /**
      * 채팅방 메시지 목록 조회
+     * before/after 에 메시지 ID 를 지정하면 커서 조회, 모두 없으면 가장 최근 메시지부터 조회
      */
     @GetMapping("/rooms/{chatroomId}/messages")
     public ResponseEntity<ApiResponse<?>> getChatMessages(
             @RequestHeader("Authorization") String token,
             @PathVariable Integer chatroomId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size) {
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer after) {
         
         String tokenWithoutBearer = tokenUtils.extractTokenWithoutBearer(token);
         
@@ -156,7 +157,7 @@ public class ChatMessageController {
         }
         
         String email = tokenUtils.getEmailFromToken(tokenWithoutBearer);
-        ChatMessagesResponse response = chatMessageService.getChatMessages(chatroomId, email, page, size);
+        ChatMessagesResponse response = chatMessageService.getChatMessages(chatroomId, email, page, size, before, after);
         
         if (!response.isSuccess()) {
             return ResponseEntity.badRequest().body(ApiResponse.error(response.getMessage(), "400"));
@@ -164,6 +165,22 @@ public class ChatMessageController {
         
         return ResponseEntity.ok(ApiResponse.success(response));
     }
+
+    /**
+     * 최근 메시지 캐시 적중률 통계
+     */
+    @GetMapping("/recent-cache/stats")
+    public ResponseEntity<ApiResponse<?>> getRecentCacheStats(
+            @RequestHeader("Authorization") String token) {
+
+        String tokenWithoutBearer = tokenUtils.extractTokenWithoutBearer(token);
+
+        if (!tokenUtils.isTokenValid(tokenWithoutBearer)) {
+            return ResponseEntity.status(401).body(ApiResponse.error("인증되지 않은 요청입니다.", "401"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(chatRecentMessageCache.stats()));
+    }
     
     /**
      * 메시지 읽음 상태 업데이트
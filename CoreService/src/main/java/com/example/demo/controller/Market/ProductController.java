@@ -4,25 +4,25 @@ import com.example.demo.dto.Market.ProductRequest;
 import com.example.demo.dto.Market.ProductRequestDto;
 import com.example.demo.dto.Market.ProductResponse;
 import com.example.demo.dto.Market.NearbyProductRequest;
+import com.example.demo.dto.Market.PagedProductResponse;
+import com.example.demo.dto.Market.ProductCursorResponse;
 
 import com.example.demo.model.Market.ProductImage;
+import com.example.demo.service.Market.ImageVariantService;
 import com.example.demo.service.Market.ProductService;
 import com.example.demo.mapper.Market.ProductImageMapper;
 import com.example.demo.util.BaseResponse;
+import com.example.demo.util.ImageResponseUtils;
 import com.example.demo.security.JwtTokenProvider;
+import com.example.demo.storage.MediaStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -36,6 +36,8 @@ public class ProductController {
     private final ProductService productService;
     private final JwtTokenProvider jwtTokenProvider;
     private final ProductImageMapper productImageMapper;
+    private final ImageVariantService imageVariantService;
+    private final MediaStore mediaStore;
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
 
     /** 상품 등록 (구매/판매) - 이미지 업로드 포함 **/
@@ -119,6 +121,55 @@ public class ProductController {
         return ResponseEntity.ok(new BaseResponse<>(productService.getProducts(categoryId, sort)));
     }
 
+    /** 모든 상품 커서 페이지 조회 - 최신 등록순, nextCursor 로 다음 페이지 조회 **/
+    @GetMapping("/all/cursor")
+    public ResponseEntity<BaseResponse<ProductCursorResponse>> getAllProductsByCursor(
+            @RequestHeader(value = "Authorization", required = false) String token,  // 토큰 선택적 처리
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        String email = (token != null) ? jwtTokenProvider.getUsername(token) : null;
+        return productService.getAllProductsByCursor(email, cursor, size);
+    }
+
+    /** 카테고리별 필터 + 가격순/최신순 정렬 커서 페이지 조회 - 모집 중인 상품만 조회 **/
+    @PostMapping("/all/filter/cursor")
+    public ResponseEntity<BaseResponse<ProductCursorResponse>> getProductsByCursor(
+            @RequestBody Map<String, Object> requestData) { // JSON 요청을 받음
+
+        Long categoryId = requestData.get("categoryId") != null ? ((Number) requestData.get("categoryId")).longValue() : null;
+        String sort = (String) requestData.get("sort");
+        String cursor = (String) requestData.get("cursor");
+        Integer size = requestData.get("size") != null ? ((Number) requestData.get("size")).intValue() : null;
+
+        return productService.getProductsByCursor(categoryId, sort, cursor, size);
+    }
+
+    /** 키워드 상품 검색 - 제목/설명 관련도순, 카테고리/가격 범위/거래방식 필터 + 페이지 조회 **/
+    @GetMapping("/search")
+    public ResponseEntity<BaseResponse<PagedProductResponse>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(required = false) String transactionType,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        return productService.searchProducts(keyword, categoryId, minPrice, maxPrice, transactionType, page, size);
+    }
+
+    /** 홈 피드 조회 - 미리 계산한 랭킹 점수순 (로그인 시 가까운 상품 우선), 카테고리 필터 + 페이지 조회 **/
+    @GetMapping("/feed")
+    public ResponseEntity<BaseResponse<PagedProductResponse>> getFeed(
+            @RequestHeader(value = "Authorization", required = false) String token,  // 토큰 선택적 처리
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        return productService.getFeed(token != null ? jwtTokenProvider.getUsername(token) : null, categoryId, page, size);
+    }
+
     /** 사용자의 위치 기반으로 특정 반경 내(유동적 거리) 있는 상품을 조회 **/
     @PostMapping("/nearby")
     public ResponseEntity<BaseResponse<List<ProductResponse>>> getNearbyProducts(
@@ -132,6 +183,18 @@ public class ProductController {
         );
     }
 
+    /** 사용자의 위치 기반으로 특정 반경 내 상품을 거리순 페이지 단위로 조회 (전체 개수 포함) **/
+    @PostMapping("/nearby/paged")
+    public ResponseEntity<BaseResponse<PagedProductResponse>> getNearbyProductsPaged(
+            @RequestHeader("Authorization") String token,
+            @RequestParam int distance,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        String email = jwtTokenProvider.getUsername(token);
+        return productService.getNearbyProducts(distance, email, page, size);
+    }
+
     /** 개별 상품 조회 (이미지 포함) - 모집이 끝난 상품은 조회되지 않음 **/
     @GetMapping("/{id}")
     public ResponseEntity<BaseResponse<ProductResponse>> getProductById(
@@ -190,37 +253,40 @@ public class ProductController {
         return productService.getMyRequestedSellProducts(email);  // 추가적인 감싸기 제거
     }
 
-    /** 상품 이미지 직접 반환 (엔드포인트 제공) **/
+    /** 상품 이미지 직접 반환 (엔드포인트 제공) - size=thumb|medium|full 로 크기 선택, 생략 시 원본 **/
     @GetMapping("/images/{imageId}")
-    public ResponseEntity<Resource> getProductImage(@PathVariable Long imageId) throws IOException {
+    public ResponseEntity<Resource> getProductImage(
+            @PathVariable Long imageId,
+            @RequestParam(required = false) String size) throws IOException {
+        if (!imageVariantService.isSupportedSize(size)) {
+            return ResponseEntity.badRequest().build();
+        }
+
         ProductImage productImage = productImageMapper.findById(imageId);
         if (productImage == null) {
             return ResponseEntity.notFound().build();
         }
 
-        // 이미지 파일 경로 가져오기
-        File file = new File(System.getProperty("user.dir") + "/src/main/resources/static" + productImage.getImagePath());
-        if (!file.exists()) {  // 파일 존재 여부 확인
-            return ResponseEntity.notFound().build();
-        }
+        // 요청한 크기의 파생 이미지 (없으면 생성, 생성할 수 없으면 원본)
+        String originalKey = MediaStore.keyOf(productImage.getImagePath());
+        String key = imageVariantService.resolve(originalKey, size);
 
-        Path path = file.toPath();
-        Resource resource = new UrlResource(path.toUri());
+        // 원본은 업로드 시 저장한 MIME 타입 사용, 파생 이미지는 확장자로 결정
+        String contentType = key.equals(originalKey) ? productImage.getContentType() : null;
 
-        if (!resource.exists() || !resource.isReadable()) {
-            return ResponseEntity.notFound().build();
-        }
+        // ETag/Last-Modified 기반 304 응답, Range 요청, 장기 캐시 헤더 적용 (S3 는 서명 URL 로 리다이렉트)
+        return ImageResponseUtils.imageResponse(mediaStore, key, contentType);
+    }
 
-        // **MIME 타입 자동 감지**
-        String contentType = Files.probeContentType(path);
-        if (contentType == null) {
-            contentType = "application/octet-stream"; // 기본 값 설정
-        }
+    /** 상품 이미지 삭제 (등록자만 가능, 같은 파일을 쓰는 이미지가 없을 때만 파일 삭제) **/
+    @DeleteMapping("/{productId}/images/{imageId}")
+    public ResponseEntity<BaseResponse<String>> deleteProductImage(
+            @RequestHeader("Authorization") String token,
+            @PathVariable Long productId,
+            @PathVariable Long imageId) {
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        String email = jwtTokenProvider.getUsername(token);
+        return productService.deleteProductImage(email, productId, imageId);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.example.demo.controller.Market;
 
+import com.example.demo.dto.Market.PagedTransactionsResponse;
 import com.example.demo.dto.Market.TransactionsRequest;
 import com.example.demo.dto.Market.TransactionsResponse;
 import com.example.demo.dto.Market.PaymentsRequest;
@@ -7,12 +8,15 @@ import com.example.demo.dto.Market.PaymentsResponse;
 import com.example.demo.service.Market.TransactionsService;
 import com.example.demo.service.Market.PaymentsService;
 import com.example.demo.util.BaseResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -51,9 +55,56 @@ public class TransactionsController {
         return transactionsService.getUserTransactions(email);
     }
 
-    /** 결제 요청 (자동으로 상태 업데이트) **/
+    /** 사용자별 거래 내역 페이지 조회 (최신순) **/
+    @GetMapping("/transactions/user/paged")
+    public ResponseEntity<BaseResponse<PagedTransactionsResponse>> getUserTransactionsPaged(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body(new BaseResponse<>(null, "인증되지 않은 사용자입니다."));
+        }
+
+        return transactionsService.getUserTransactionsPaged(userDetails.getUsername(), page, size);
+    }
+
+    /** 사용자별 전체 거래 내역 내보내기 (format=csv|ndjson, 응답으로 바로 스트리밍) **/
+    @GetMapping("/transactions/user/export")
+    public void exportUserTransactions(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = TransactionsService.EXPORT_FORMAT_CSV) String format,
+            HttpServletResponse response) throws IOException {
+
+        if (userDetails == null) {
+            response.sendError(401, "인증되지 않은 사용자입니다.");
+            return;
+        }
+        if (!TransactionsService.EXPORT_FORMAT_CSV.equals(format) && !TransactionsService.EXPORT_FORMAT_NDJSON.equals(format)) {
+            response.sendError(400, "지원하지 않는 형식입니다. (csv, ndjson)");
+            return;
+        }
+
+        boolean csv = TransactionsService.EXPORT_FORMAT_CSV.equals(format);
+        response.setContentType(csv ? "text/csv; charset=UTF-8" : "application/x-ndjson; charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + format + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        transactionsService.exportUserTransactions(userDetails.getUsername(), format, response.getOutputStream());
+    }
+
+    /** 결제 요청 (자동으로 상태 업데이트, Idempotency-Key 헤더가 같은 재시도는 한 번만 반영) **/
     @PostMapping("/transactions/payments")
-    public ResponseEntity<BaseResponse<PaymentsResponse>> createPayment(@RequestBody PaymentsRequest request) {
+    public ResponseEntity<BaseResponse<PaymentsResponse>> createPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody PaymentsRequest request) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > 64) {
+                return ResponseEntity.badRequest().body(BaseResponse.error("Idempotency-Key 는 64자 이하여야 합니다."));
+            }
+            request.setIdempotencyKey(idempotencyKey);
+        }
+
         // 결제 요청 시 자동으로 결제 상태 업데이트 실행됨
         ResponseEntity<BaseResponse<PaymentsResponse>> response = paymentsService.createPayment(request);
         return response;
@@ -0,0 +1,50 @@
+package com.example.demo.controller;
+
+import com.example.demo.storage.MediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * S3 저장소 사용 시 기존 업로드 미디어 웹 경로("/uploads/...", "/chat-images/..." 등)를
+ * 서명 URL 로 리다이렉트 (로컬 저장소는 LocalMediaServlet 이 처리)
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "media.store", havingValue = "s3")
+public class MediaRedirectController {
+
+    private final MediaStore mediaStore;
+
+    @GetMapping({"/profile-images/**", "/chat-images/**", "/board-files/**", "/board-images/**", "/uploads/**"})
+    public ResponseEntity<Void> redirect(HttpServletRequest request) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = MediaStore.keyOf(UriUtils.decode(path, StandardCharsets.UTF_8));
+        if (mediaStore.stat(key) == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<String> presignedUrl = mediaStore.presignedUrl(key);
+        if (presignedUrl.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(presignedUrl.get()))
+                .cacheControl(CacheControl.noStore())
+                .build();
+    }
+}
@@ -5,10 +5,11 @@ import com.example.demo.dto.profile.*;
 import com.example.demo.dto.auth.*;
 import com.example.demo.dto.hobby.*;
 import com.example.demo.service.FileStorageService;
+import com.example.demo.storage.MediaStore;
+import com.example.demo.util.ImageResponseUtils;
 import com.example.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,6 +25,7 @@ public class ProfileController {
     
     private final UserService userService;
     private final FileStorageService fileStorageService;
+    private final MediaStore mediaStore;
     
     /**
      * 자신의 프로필 조회
@@ -212,31 +214,13 @@ public class ProfileController {
     @GetMapping("/image/{filename:.+}")
     public ResponseEntity<?> getProfileImage(@PathVariable String filename) {
         try {
-            // 파일 경로 생성
-            java.nio.file.Path imagePath = java.nio.file.Paths.get(System.getProperty("user.dir") + "/src/main/resources/static/profile-images/" + filename);
-            java.io.File file = imagePath.toFile();
-            System.out.println("@@@@@@@@@@@@@@@@@@@파일 경로: " + imagePath);
-            
-            // 파일이 존재하는지 확인
-            if (!file.exists()) {
+            // 저장소 key 생성 후 캐시 헤더와 함께 반환 (S3 는 서명 URL 로 리다이렉트)
+            String key = fileStorageService.getProfileImageKey(filename);
+            ResponseEntity<org.springframework.core.io.Resource> response = ImageResponseUtils.imageResponse(mediaStore, key, null);
+            if (response.getStatusCode().is4xxClientError()) {
                 log.error("프로필 이미지 파일을 찾을 수 없음: {}", filename);
-                return ResponseEntity.notFound().build();
             }
-            
-            // 파일 내용 읽기
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(file.toURI());
-            
-            // MIME 타입 감지
-            String contentType = java.nio.file.Files.probeContentType(imagePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-            
-            // 이미지 직접 반환
-            return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+            return response;
         } catch (Exception ex) {
             log.error("프로필 이미지 제공 실패: {}", ex.getMessage());
             return ResponseEntity.status(500).body("이미지 로드 중 오류가 발생했습니다.");
@@ -252,30 +236,13 @@ public class ProfileController {
         try {
             String defaultImageName = fileStorageService.getDefaultProfileImageName();
             
-            // 파일 경로 생성
-            java.nio.file.Path imagePath = java.nio.file.Paths.get(System.getProperty("user.dir") + "/src/main/resources/static/profile-images/" + defaultImageName);
-            java.io.File file = imagePath.toFile();
-            
-            // 파일이 존재하는지 확인
-            if (!file.exists()) {
+            // 저장소 key 생성 후 캐시 헤더와 함께 반환 (S3 는 서명 URL 로 리다이렉트)
+            String key = fileStorageService.getProfileImageKey(defaultImageName);
+            ResponseEntity<org.springframework.core.io.Resource> response = ImageResponseUtils.imageResponse(mediaStore, key, null);
+            if (response.getStatusCode().is4xxClientError()) {
                 log.error("기본 프로필 이미지 파일을 찾을 수 없음: {}", defaultImageName);
-                return ResponseEntity.notFound().build();
             }
-            
-            // 파일 내용 읽기
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(file.toURI());
-            
-            // MIME 타입 감지
-            String contentType = java.nio.file.Files.probeContentType(imagePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-            
-            // 이미지 직접 반환
-            return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+            return response;
         } catch (Exception ex) {
             log.error("기본 프로필 이미지 제공 실패: {}", ex.getMessage());
             return ResponseEntity.status(500).body("이미지 로드 중 오류가 발생했습니다.");
@@ -1,18 +1,14 @@
 package com.example.demo.controller.board;
 
+import com.example.demo.storage.MediaStore;
+import com.example.demo.util.ImageResponseUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/core/boards/images")
@@ -20,6 +16,8 @@ import java.nio.file.Paths;
 @Slf4j
 public class PostImageViewerController {
 
+    private final MediaStore mediaStore;
+
     /**
      * 게시글 이미지 조회
      */
@@ -30,32 +28,18 @@ public class PostImageViewerController {
             @PathVariable String fileName) {
         
         try {
-            // 이미지 파일 경로 생성
-            String imagePath = "board-files/board_" + boardId + "/" + fileType + "/" + fileName;
-            Path filePath = Paths.get(System.getProperty("user.dir") + "/src/main/resources/static/" + imagePath);
+            // 이미지 파일 key 생성
+            String key = "board-files/board_" + boardId + "/" + fileType + "/" + fileName;
             
-            // 파일이 존재하는지 확인
-            if (!Files.exists(filePath)) {
-                log.error("이미지 파일을 찾을 수 없음: {}", imagePath);
-                return ResponseEntity.notFound().build();
+            // ETag/Last-Modified 기반 304 응답, Range 요청, 장기 캐시 헤더 적용 (S3 는 서명 URL 로 리다이렉트)
+            // (게시글 이미지는 글 작성 전에 업로드되어 DB 행이 없으므로 MIME 타입은 확장자로 결정)
+            ResponseEntity<Resource> response = ImageResponseUtils.imageResponse(mediaStore, key, null);
+            if (response.getStatusCode().is4xxClientError()) {
+                log.error("이미지 파일을 찾을 수 없음: {}", key);
             }
+            return response;
             
-            // 리소스 생성
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            // MIME 타입 감지
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-            
-            // 이미지 직접 반환
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                    .body(resource);
-            
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             log.error("이미지 조회 중 오류 발생: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
@@ -13,4 +13,5 @@ public class PaymentsRequest {
     private Long transactionId;
     private int amount;
     private String paymentMethod;
+    private String idempotencyKey;  // 클라이언트 재시도 시 중복 결제 방지 키 (Idempotency-Key 헤더)
 }
\ No newline at end of file
@@ -12,5 +12,6 @@ public class PaymentsResponse {
     private Long transactionId;
     private int amount;
     private String paymentMethod;
+    private String idempotencyKey;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
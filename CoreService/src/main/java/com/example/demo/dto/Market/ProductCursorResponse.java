@@ -0,0 +1,19 @@
+package com.example.demo.dto.Market;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursorResponse {
+    private List<ProductResponse> content;   // 현재 페이지의 상품 목록
+    private int size;                        // 요청한 페이지 크기
+    private boolean hasNext;                 // 다음 페이지 존재 여부
+    private String nextCursor;               // 다음 페이지 조회용 커서 (마지막 페이지면 null)
+}
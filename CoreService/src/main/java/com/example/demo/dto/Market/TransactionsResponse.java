@@ -16,6 +16,7 @@ public class TransactionsResponse {
     private String transactionStatus;
     private String paymentStatus;
     private int price;
+    private int paidTotal;  // 누적 결제 금액
     private String description;
     private LocalDateTime createdAt;
 }
@@ -19,4 +19,9 @@ public class ChatMessagesResponse {
     private Integer totalCount;
     private Integer totalPages;
     private Integer currentPage;
+
+    // 커서 조회 (before/after)
+    private Integer oldestMessageId; // 이전 메시지 조회 시 before 로 사용
+    private Integer newestMessageId; // 새 메시지 조회 시 after 로 사용
+    private boolean hasMore;         // 조회 방향으로 메시지가 더 있는지 여부
 }
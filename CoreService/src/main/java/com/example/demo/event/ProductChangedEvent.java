@@ -0,0 +1,14 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 상품 정보(모집 인원, 모집 마감, 승인 등)가 변경되었음을 알리는 이벤트
+ * - 커밋 이후 상품 상세 캐시 무효화 등에 사용
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+}
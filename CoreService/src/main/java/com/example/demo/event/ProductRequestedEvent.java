@@ -0,0 +1,17 @@
+package com.example.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 상품 요청(구매 요청/판매 요청)이 등록되었음을 알리는 이벤트
+ * - 요청 등록 트랜잭션 커밋 후 아웃박스(outboxId)에 기록된 부가 작업(등록자 알림)을 비동기로 처리
+ */
+@Getter
+@AllArgsConstructor
+public class ProductRequestedEvent {
+    public static final String EVENT_TYPE = "PRODUCT_REQUESTED";
+
+    private final Long outboxId;
+    private final Long productId;
+}
@@ -0,0 +1,148 @@
+package com.example.demo.listener;
+
+import com.example.demo.event.ProductRequestedEvent;
+import com.example.demo.mapper.EventOutboxMapper;
+import com.example.demo.model.EventOutbox;
+import com.example.demo.service.NotificationService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 요청 등록 이후의 부가 작업(등록자 알림)을 커밋 후 비동기로 처리하는 리스너
+ * - 요청 등록 트랜잭션이 커밋된 뒤 eventExecutor 에서 아웃박스 이벤트를 처리
+ * - 실패하거나 처리 전에 서버가 종료된 이벤트는 재처리 스케줄러가 주기적으로 다시 처리
+ */
+@Slf4j
+@Component
+public class ProductRequestEventListener {
+
+    private final EventOutboxMapper eventOutboxMapper;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor eventExecutor;
+
+    // 최대 처리 시도 횟수
+    @Value("${event.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // 커밋 후 처리되지 않은 이벤트를 재처리 대상으로 보기까지의 대기 시간 (초)
+    @Value("${event.outbox.retry-delay-seconds:30}")
+    private int retryDelaySeconds;
+
+    // 처리 중 상태로 멈춘 이벤트를 다시 선점할 수 있기까지의 시간 (초)
+    @Value("${event.outbox.stale-seconds:300}")
+    private int staleSeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public ProductRequestEventListener(EventOutboxMapper eventOutboxMapper,
+                                       NotificationService notificationService,
+                                       ObjectMapper objectMapper,
+                                       @Qualifier("eventExecutor") ThreadPoolTaskExecutor eventExecutor) {
+        this.eventOutboxMapper = eventOutboxMapper;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.eventExecutor = eventExecutor;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Initializing product request outbox retry scheduler");
+        scheduler.scheduleWithFixedDelay(this::retryPendingEvents, retryDelaySeconds, retryDelaySeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Shutting down product request outbox retry scheduler");
+        scheduler.shutdown();
+    }
+
+    /**
+     * 요청 등록 트랜잭션 커밋 후 비동기 처리
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductRequested(ProductRequestedEvent event) {
+        submit(event.getOutboxId());
+    }
+
+    /**
+     * 재처리 대상 이벤트를 실행기에 다시 제출
+     */
+    public void retryPendingEvents() {
+        try {
+            // 처리 중 워커가 죽어 재시도 횟수를 모두 쓴 채 멈춘 이벤트는 실패 처리
+            int abandoned = eventOutboxMapper.markStaleEventsFailed(staleSeconds, maxAttempts);
+            if (abandoned > 0) {
+                log.warn("재시도 횟수를 초과해 멈춘 아웃박스 이벤트 실패 처리: {}건", abandoned);
+            }
+
+            List<Long> eventIds = eventOutboxMapper.findRetryableEventIds(retryDelaySeconds, staleSeconds, maxAttempts, 100);
+            if (!eventIds.isEmpty()) {
+                log.info("아웃박스 이벤트 재처리: {}건", eventIds.size());
+            }
+            eventIds.forEach(this::submit);
+        } catch (Exception e) {
+            log.error("아웃박스 재처리 조회 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    private void submit(Long outboxId) {
+        try {
+            eventExecutor.execute(() -> process(outboxId));
+        } catch (TaskRejectedException e) {
+            // 실행기 큐가 가득 찬 경우 재처리 스케줄러가 이어서 처리
+            log.warn("이벤트 실행기 포화로 처리를 미룸: outboxId={}", outboxId);
+        }
+    }
+
+    private void process(Long outboxId) {
+        // 다른 노드/스레드가 이미 처리 중이면 건너뜀
+        if (eventOutboxMapper.claimEvent(outboxId, staleSeconds, maxAttempts) == 0) {
+            return;
+        }
+
+        try {
+            EventOutbox event = eventOutboxMapper.findById(outboxId);
+            if (ProductRequestedEvent.EVENT_TYPE.equals(event.getEventType())) {
+                handleProductRequested(event);
+            } else {
+                log.warn("알 수 없는 아웃박스 이벤트 종류: id={}, type={}", outboxId, event.getEventType());
+            }
+            eventOutboxMapper.markDone(outboxId);
+        } catch (Exception e) {
+            log.error("아웃박스 이벤트 처리 실패: id={}, error={}", outboxId, e.getMessage());
+            eventOutboxMapper.markFailed(outboxId, String.valueOf(e.getMessage()), maxAttempts);
+        }
+    }
+
+    /**
+     * 상품 등록자에게 새로운 신청 알림 전송
+     */
+    private void handleProductRequested(EventOutbox event) throws Exception {
+        Map<String, Object> payload = objectMapper.readValue(event.getPayload(), new TypeReference<Map<String, Object>>() {});
+
+        // 전송 실패는 예외로 전달되어 markFailed 후 재처리됨
+        notificationService.deliverNotification(
+                (String) payload.get("receiverEmail"),
+                (String) payload.get("message"),
+                "PRODUCT_REQUEST",
+                0,
+                event.getAggregateId());
+    }
+}
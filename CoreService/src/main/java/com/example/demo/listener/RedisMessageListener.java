@@ -1,6 +1,7 @@
 package com.example.demo.listener;
 
 import com.example.demo.model.chat.ChatMessage;
+import com.example.demo.service.ChatRecentMessageCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ public class RedisMessageListener {
 
     private final ObjectMapper objectMapper;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ChatRecentMessageCache chatRecentMessageCache;
     
     /**
      * Redis 채널에서 메시지를 수신하여 WebSocket으로 전달
@@ -22,6 +24,9 @@ public class RedisMessageListener {
         try {
             // 메시지 역직렬화
             ChatMessage chatMessage = objectMapper.readValue(message, ChatMessage.class);
+
+            // 이 노드의 최근 메시지 캐시에 반영
+            chatRecentMessageCache.onMessage(chatMessage);
             
             // 채팅방 ID를 통해 WebSocket 주제로 메시지 발행
             String destination = "/topic/chat." + chatMessage.getChatroomId();
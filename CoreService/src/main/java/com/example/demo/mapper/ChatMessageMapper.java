@@ -1,18 +1,27 @@
 package com.example.demo.mapper;
 
 import com.example.demo.model.chat.ChatMessage;
+import com.example.demo.model.chat.ChatReadStatus;
+import com.example.demo.model.chat.ChatRoom;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 @Repository
 public interface ChatMessageMapper {
     
-    // 메시지 저장
-    void saveChatMessage(ChatMessage message);
+    // 메시지 여러 건 저장 (message_id 포함)
+    void insertChatMessages(@Param("messages") List<ChatMessage> messages);
+
+    // 주어진 ID 중 이미 저장된 메시지 (messageId, chatroomId, senderEmail, content 만 채워짐)
+    List<ChatMessage> findMessagesByIds(@Param("messageIds") List<Integer> messageIds);
+
+    // 마지막 메시지 ID (메시지가 없으면 null)
+    Integer findMaxMessageId();
     
     // 메시지 ID로 메시지 조회
     ChatMessage findMessageById(int messageId);
@@ -23,23 +32,50 @@ public interface ChatMessageMapper {
             @Param("offset") int offset, 
             @Param("limit") int limit);
     
-    // 채팅방 메시지 총 개수
-    int countMessagesByChatRoomId(Integer chatroomId);
+    /**
+     * 채팅방 메시지 커서 조회 (message_id 기준)
+     * @param afterId 이 ID 이후 메시지 (오래된 순)
+     * @param beforeId 이 ID 이전 메시지 (최신순, afterId 와 beforeId 가 모두 없으면 가장 최근 메시지부터)
+     */
+    List<ChatMessage> findMessagesByCursor(
+            @Param("chatroomId") Integer chatroomId,
+            @Param("beforeId") Integer beforeId,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit);
     
     /**
-     * 메시지 읽음 상태 업데이트
+     * 채팅방의 마지막 메시지 ID (메시지가 없으면 null)
+     */
+    Integer findLatestMessageId(@Param("chatroomId") Integer chatroomId);
+
+    /**
+     * 멤버의 읽음 위치(마지막으로 읽은 메시지 ID) 갱신
      * @param chatroomId 채팅방 ID
-     * @param receiverEmail 수신자 이메일
-     * @return 업데이트된 메시지 수
+     * @param email 읽은 사용자 이메일
+     * @param messageId 마지막으로 읽은 메시지 ID
      */
-    int updateMessageReadStatus(
-            @Param("chatroomId") Integer chatroomId, 
-            @Param("receiverEmail") String receiverEmail);
+    int updateLastReadMessageId(
+            @Param("chatroomId") Integer chatroomId,
+            @Param("email") String email,
+            @Param("messageId") Integer messageId);
 
     /**
-     * 읽지 않은 메시지 개수 조회
+     * 채팅방 멤버별 읽음 위치
      */
-    int countUnreadMessages(
-            @Param("chatroomId") Integer chatroomId, 
-            @Param("receiverEmail") String receiverEmail);
+    List<ChatReadStatus> findReadStatusByChatRoom(@Param("chatroomId") Integer chatroomId);
+
+    /**
+     * 사용자가 참여한 채팅방별 읽지 않은 메시지 수 (chatroomId, unreadCount 만 채워짐)
+     * @param maxMessageId 이 ID 이하의 메시지만 셈 (null 이면 전체)
+     * @param excludedMessageIds 집계에서 제외할 메시지 ID (따로 세는 아직 저장 중인 메시지)
+     */
+    List<ChatRoom> countUnreadMessagesByUser(@Param("email") String email,
+                                             @Param("maxMessageId") Integer maxMessageId,
+                                             @Param("excludedMessageIds") List<Integer> excludedMessageIds);
+
+    /**
+     * 주어진 채팅방 중 사용자가 참여한 채팅방의 읽음 위치 (읽은 적이 없으면 0)
+     */
+    List<ChatReadStatus> findReadPositionsByUser(@Param("email") String email,
+                                                 @Param("chatroomIds") Collection<Integer> chatroomIds);
 }
@@ -35,11 +35,15 @@ public interface ChatRoomMapper {
             @Param("chatroomId") Integer chatroomId, 
             @Param("status") String status);
     
-    // 채팅방 마지막 메시지 및 시간 업데이트 (개별 파라미터)
-    void updateChatRoomLastMessage(
-        @Param("chatroomId") Integer chatroomId, 
-        @Param("lastMessage") String lastMessage, 
-        @Param("lastMessageTime") LocalDateTime lastMessageTime
+    /**
+     * 저장된 메시지 반영 (마지막 메시지는 더 최신일 때만 변경, 메시지 수는 addedCount 만큼 증가)
+     */
+    int applyFlushedMessages(
+        @Param("chatroomId") Integer chatroomId,
+        @Param("lastMessageId") Integer lastMessageId,
+        @Param("lastMessage") String lastMessage,
+        @Param("lastMessageTime") LocalDateTime lastMessageTime,
+        @Param("addedCount") int addedCount
     );
 
     /**
@@ -0,0 +1,35 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.EventOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface EventOutboxMapper {
+
+    // 아웃박스 이벤트 저장
+    void insertEvent(EventOutbox event);
+
+    // 아웃박스 이벤트 조회
+    EventOutbox findById(@Param("id") Long id);
+
+    // 처리 대기(또는 재시도 횟수가 남은 처리 중 멈춘) 이벤트 선점, 선점 성공 시 1 반환
+    int claimEvent(@Param("id") Long id, @Param("staleSeconds") int staleSeconds, @Param("maxAttempts") int maxAttempts);
+
+    // 처리 완료
+    void markDone(@Param("id") Long id);
+
+    // 처리 실패 (재시도 가능 횟수가 남아 있으면 PENDING, 아니면 FAILED)
+    void markFailed(@Param("id") Long id, @Param("lastError") String lastError, @Param("maxAttempts") int maxAttempts);
+
+    // 재시도 횟수를 모두 쓴 채 처리 중으로 멈춘 이벤트를 FAILED 로 전환
+    int markStaleEventsFailed(@Param("staleSeconds") int staleSeconds, @Param("maxAttempts") int maxAttempts);
+
+    // 재처리 대상 이벤트 ID 조회 (커밋 후 처리되지 못한 이벤트, 재시도 횟수가 남은 멈춘 처리 중 이벤트)
+    List<Long> findRetryableEventIds(@Param("delaySeconds") int delaySeconds,
+                                     @Param("staleSeconds") int staleSeconds,
+                                     @Param("maxAttempts") int maxAttempts,
+                                     @Param("limit") int limit);
+}
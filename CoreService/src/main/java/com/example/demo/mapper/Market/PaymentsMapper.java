@@ -10,7 +10,9 @@ import java.util.List;
 
 @Mapper
 public interface PaymentsMapper {
-    void insertPayment(PaymentsRequest request);
+    // 결제 등록 (같은 멱등 키로 이미 등록되었으면 DuplicateKeyException)
+    int insertPayment(PaymentsRequest request);
     List<PaymentsResponse> findPaymentsByTransaction(@Param("transactionId") Long transactionId);
-    int getTotalPaidByTransaction(@Param("transactionId") Long transactionId);
+    PaymentsResponse findPaymentByIdempotencyKey(@Param("transactionId") Long transactionId,
+                                                 @Param("idempotencyKey") String idempotencyKey);
 }
\ No newline at end of file
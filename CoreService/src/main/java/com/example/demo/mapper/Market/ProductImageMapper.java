@@ -2,6 +2,7 @@ package com.example.demo.mapper.Market;
 
 import com.example.demo.model.Market.ProductImage;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,8 +11,18 @@ import java.util.List;
 @Repository
 public interface ProductImageMapper {
     void insertProductImage(ProductImage productImage);
+
+    // 여러 이미지를 한 번에 추가 (다중 행 INSERT)
+    void insertProductImages(List<ProductImage> productImages);
+
     List<ProductImage> findByProductId(Long productId);
 
     // 이미지 ID로 특정 이미지 조회하는 메서드 추가!
     ProductImage findById(Long imageId);
+
+    // 여러 상품 ID의 이미지를 한 번에 조회 (목록 조회용)
+    List<ProductImage> findByProductIds(@Param("productIds") List<Long> productIds);
+
+    // 이미지 삭제
+    int deleteById(Long imageId);
 }
@@ -1,11 +1,13 @@
 package com.example.demo.mapper.Market;
 
 import com.example.demo.dto.Market.ProductResponse;
+import com.example.demo.model.Market.ParticipantAdmission;
 import com.example.demo.model.Market.Product;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +22,12 @@ public interface ProductMapper {
     // 상품 조회 (등록자는 마감된 상품도 조회가능)
     Product findById(@Param("id") Long id, @Param("email") String email);
 
+    // 상품 상세 캐시용 조회 (조회 권한 확인 없이 상품 원본 조회)
+    Product findDetailById(@Param("id") Long id);
+
+    // 특정 사용자의 승인된 요청 존재 여부
+    boolean existsApprovedRequest(@Param("productId") Long productId, @Param("email") String email);
+
     // 특정 카테고리 필터링 + 정렬 추가
     List<Product> findFilteredProducts(@Param("categoryId") Long categoryId, @Param("sort") String sort);
 
@@ -29,17 +37,27 @@ public interface ProductMapper {
     // 특정 상품의 현재 참여 인원 조회 (current_participants 값 가져오기)
     int getCurrentParticipants(@Param("productId") Long productId);
 
-    // 상품 요청 등록 (ProductRequests 테이블에 저장) - 요청자 이메일 추가
-    void insertProductRequest(@Param("productId") Long productId, @Param("requesterEmail") String requesterEmail);
+    // 상품 요청 등록 (ProductRequests 테이블에 저장) - 모집 중인 상품에만 등록, 등록된 행 수 반환
+    int insertProductRequest(@Param("productId") Long productId, @Param("requesterEmail") String requesterEmail);
+
+    // 남은 자리가 있을 때만 모집 인원 1 증가 (마지막 자리면 모집 마감), 자리 확보 시 1 반환
+    // 확보 후 남은 자리는 admission.remainingSlots 로 함께 반환 (추가 조회 없음)
+    int admitParticipant(ParticipantAdmission admission);
+
+    // 미승인 요청만 승인 처리, 승인된 행 수 반환
+    int approvePendingRequest(@Param("requestId") Long requestId, @Param("productId") Long productId);
+
+    // 요청 승인 되돌리기
+    void revertRequestApproval(@Param("requestId") Long requestId);
 
     // 모집 인원 증가
     void increaseCurrentParticipants(@Param("productId") Long productId);
 
-    // 모집 완료 시 상품 비활성화
-    void updateProductVisibility(@Param("productId") Long productId);
+    // 모집 완료 시 상품 비활성화 (마감 처리된 행 수 반환)
+    int updateProductVisibility(@Param("productId") Long productId);
 
-    // 모집 마감 체크
-    void updateProductStatusToComplete(Long productId);
+    // 모집 마감 체크 (마감 처리된 행 수 반환)
+    int updateProductStatusToComplete(Long productId);
 
     // 상품 요청 승인 여부 업데이트
     void updateRequestApprovalStatus(@Param("requestId") Long requestId, @Param("approvalStatus") String approvalStatus);
@@ -71,10 +89,83 @@ public interface ProductMapper {
     // 전체 상품 조회
     List<Product> findAll(@Param("email") String email);
 
-    // 특정 반경 내(유동적 거리) 있는 상품 조회
+    // 전체 상품 커서 페이지 조회 (cursorId 가 null 이면 첫 페이지)
+    List<Product> findAllByCursor(@Param("email") String email,
+                                  @Param("cursorId") Long cursorId,
+                                  @Param("limit") int limit);
+
+    // 특정 카테고리 필터링 + 정렬 커서 페이지 조회 (cursorId 가 null 이면 첫 페이지)
+    List<Product> findFilteredProductsByCursor(@Param("categoryId") Long categoryId,
+                                               @Param("sort") String sort,
+                                               @Param("cursorPrice") Integer cursorPrice,
+                                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                               @Param("cursorId") Long cursorId,
+                                               @Param("limit") int limit);
+
+    // 대표 이미지 ID 갱신
+    int updateThumbnailImageId(@Param("productId") Long productId, @Param("imageId") Long imageId);
+
+    // 키워드로 상품 검색 (제목/설명 FULLTEXT 관련도순, 카테고리/가격/거래방식 필터)
+    List<Product> searchProducts(@Param("keyword") String keyword,
+                                 @Param("categoryId") Long categoryId,
+                                 @Param("minPrice") Integer minPrice,
+                                 @Param("maxPrice") Integer maxPrice,
+                                 @Param("transactionType") String transactionType,
+                                 @Param("offset") int offset,
+                                 @Param("size") int size);
+
+    // 키워드 검색 결과 수
+    int countSearchProducts(@Param("keyword") String keyword,
+                            @Param("categoryId") Long categoryId,
+                            @Param("minPrice") Integer minPrice,
+                            @Param("maxPrice") Integer maxPrice,
+                            @Param("transactionType") String transactionType);
+
+    // 특정 반경 내(유동적 거리) 있는 상품 조회 (사각형 범위로 후보를 좁힌 뒤 거리순 정렬, size 가 null 이면 전체 조회)
     List<ProductResponse> findNearbyProducts(@Param("latitude") double latitude,
                                              @Param("longitude") double longitude,
-                                             @Param("distance") double distance);
+                                             @Param("distance") double distance,
+                                             @Param("minLatitude") double minLatitude,
+                                             @Param("maxLatitude") double maxLatitude,
+                                             @Param("minLongitude") double minLongitude,
+                                             @Param("maxLongitude") double maxLongitude,
+                                             @Param("offset") Integer offset,
+                                             @Param("size") Integer size);
+
+    // 특정 반경 내(유동적 거리) 있는 상품 수 조회
+    int countNearbyProducts(@Param("latitude") double latitude,
+                            @Param("longitude") double longitude,
+                            @Param("distance") double distance,
+                            @Param("minLatitude") double minLatitude,
+                            @Param("maxLatitude") double maxLatitude,
+                            @Param("minLongitude") double minLongitude,
+                            @Param("maxLongitude") double maxLongitude);
+
+    // 주변 상품 인덱스 적재용 모집 중인 대면 상품 위치 조회
+    List<Product> findVisibleFaceToFaceProductLocations();
+
+    // 홈 피드 점수 계산용 모집 중인 상품 조회
+    List<ProductResponse> findFeedCandidates();
+
+    // 상품 하나의 피드 점수 계산용 정보 (마감/삭제되었으면 null)
+    ProductResponse findFeedCandidateById(@Param("productId") Long productId);
+
+    // 피드가 아직 계산되지 않았을 때 사용할 모집 중 상품 ID (최신순, categoryId 가 null 이면 전체)
+    List<Long> findLatestVisibleProductIds(@Param("categoryId") Long categoryId,
+                                           @Param("offset") int offset,
+                                           @Param("size") int size);
+
+    // 모집 중 상품 수 (categoryId 가 null 이면 전체)
+    int countVisibleProducts(@Param("categoryId") Long categoryId);
+
+    // 모집 기간이 지난 모집 중 상품 ID 조회 (행 잠금, 다른 노드가 잠근 행은 건너뜀)
+    List<Long> findExpiredVisibleProductIds(@Param("limit") int limit);
+
+    // 모집 기간이 지난 상품 모집 마감, 마감된 행 수 반환
+    int closeExpiredProducts(@Param("productIds") List<Long> productIds, @Param("limit") int limit);
+
+    // 상품 ID 목록으로 주변 상품 상세 정보 조회
+    List<ProductResponse> findNearbyProductsByIds(@Param("productIds") List<Long> productIds);
 
     // 특정 상품에 대한 사용자의 승인 상태 조회
     String findApprovalStatus(@Param("email") String email, @Param("productId") Long productId);
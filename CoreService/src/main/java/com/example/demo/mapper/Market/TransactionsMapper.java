@@ -4,6 +4,7 @@ import com.example.demo.dto.Market.TransactionsRequest;
 import com.example.demo.dto.Market.TransactionsResponse;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -12,6 +13,16 @@ public interface TransactionsMapper {
     void insertTransaction(TransactionsRequest request);
     TransactionsResponse findTransactionById(@Param("id") Long id);
     List<TransactionsResponse> findTransactionsByUser(@Param("email") String email);
-    int getTransactionPrice(@Param("id") Long id);
-    void updateTransactionStatusOnPayment(@Param("transactionId") Long transactionId);
+
+    // 사용자별 거래 내역 페이지 조회 (최신순)
+    List<TransactionsResponse> findTransactionsByUserPaged(@Param("email") String email,
+                                                           @Param("offset") int offset,
+                                                           @Param("limit") int limit);
+
+    int countTransactionsByUser(@Param("email") String email);
+
+    // 사용자별 거래 내역 스트리밍 조회 (트랜잭션 안에서 순회 후 닫아야 함)
+    Cursor<TransactionsResponse> streamTransactionsByUser(@Param("email") String email);
+    // 결제 금액 누적 및 완료 처리 (취소된 거래이거나 거래가 없으면 0 반환)
+    int addPaidAmount(@Param("transactionId") Long transactionId, @Param("amount") int amount);
 }
@@ -0,0 +1,24 @@
+package com.example.demo.mapper;
+
+import com.example.demo.model.MediaBlob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface MediaBlobMapper {
+
+    // 참조 추가 (없으면 ref_count = 1 로 생성, 있으면 1 증가)
+    void acquire(MediaBlob blob);
+
+    // 해시로 조회
+    MediaBlob findByHash(@Param("contentHash") String contentHash);
+
+    // 참조 해제 전 행 잠금 조회 (같은 해시의 동시 업로드/삭제 직렬화)
+    MediaBlob findByHashForUpdate(@Param("contentHash") String contentHash);
+
+    // 참조 수 1 감소
+    void decrementRefCount(@Param("contentHash") String contentHash);
+
+    // 마지막 참조를 해제하면서 행 삭제, 삭제되면 1 반환
+    int deleteLastReference(@Param("contentHash") String contentHash);
+}
@@ -0,0 +1,26 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventOutbox {
+    private Long id;
+    private String eventType;      // 이벤트 종류 (예: PRODUCT_REQUESTED)
+    private Long aggregateId;      // 관련 엔티티 ID (예: 상품 ID)
+    private String payload;        // 이벤트 데이터 (JSON)
+
+    @Builder.Default
+    private String status = "PENDING"; // PENDING, PROCESSING, DONE, FAILED
+
+    private int attempts;          // 처리 시도 횟수
+    private String lastError;      // 마지막 실패 사유
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime processedAt;
+}
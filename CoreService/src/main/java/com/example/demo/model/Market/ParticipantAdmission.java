@@ -0,0 +1,23 @@
+package com.example.demo.model.Market;
+
+import lombok.*;
+
+/**
+ * 모집 인원 확보 결과 (admitParticipant 파라미터)
+ * - 자리를 확보하면 UPDATE 가 LAST_INSERT_ID 로 남긴 "남은 자리 + 1" 이 generated key 로 설정됨
+ *   (드라이버가 0 은 generated key 로 돌려주지 않으므로 1 을 더해 전달)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParticipantAdmission {
+    private Long productId;
+    private Long remainingSlotsKey; // 남은 자리 + 1 (자리를 얻지 못했으면 null)
+
+    // 자리 확보 후 남은 자리 (알 수 없으면 null)
+    public Integer getRemainingSlots() {
+        return remainingSlotsKey != null ? (int) (remainingSlotsKey - 1) : null;
+    }
+}
@@ -14,5 +14,6 @@ public class Payment {
     private Long transactionId;
     private int amount;
     private String paymentMethod;
+    private String idempotencyKey;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
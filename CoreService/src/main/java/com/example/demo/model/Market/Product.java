@@ -30,6 +30,7 @@ public class Product {
     private Double longitude; // 거래 장소 경도 (대면 거래일 경우 필수)
     private String meetingPlace; // 거래 장소명 (대면 거래일 경우 필수)
     private String address; // 거래 장소 주소 (선택적)
+    private Long thumbnailImageId; // 대표 이미지 ID (ProductImages 참조, 이미지 업로드 시 갱신)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
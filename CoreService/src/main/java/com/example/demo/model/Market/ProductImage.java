@@ -12,6 +12,8 @@ public class ProductImage {
     private Long id;
     private Long productId;
     private String imagePath;
+    private String contentType;  // MIME 타입 (업로드 시 저장, 이미지 응답 시 사용)
+    private String contentHash;  // 파일 내용 SHA-256 (MediaBlobs 참조, 중복 제거 이전 이미지는 null)
 
     @Builder.Default
     private Boolean isThumbnail = false;  // 기본값 false 적용
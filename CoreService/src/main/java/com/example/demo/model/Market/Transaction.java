@@ -17,6 +17,7 @@ public class Transaction {
     private String transactionStatus;
     private String paymentStatus;
     private int price;
+    private int paidTotal;  // 누적 결제 금액
     private String description;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
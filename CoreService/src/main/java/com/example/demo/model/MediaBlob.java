@@ -0,0 +1,20 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaBlob {
+    private String contentHash;    // SHA-256 (16진수 64자)
+    private String storageKey;     // MediaStore key (예: uploads/sha256/ab/ab12...ef.jpg)
+    private long size;             // 파일 크기 (byte)
+    private String contentType;    // MIME 타입
+    private int refCount;          // 이 파일을 참조하는 이미지 행 수
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.model.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅방 멤버별 읽음 위치 (chatroom_read_status)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReadStatus {
+    private Integer chatroomId;
+    private String email;
+    private Integer lastReadMessageId; // 마지막으로 읽은 메시지 ID
+}
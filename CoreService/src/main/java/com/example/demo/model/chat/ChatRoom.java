@@ -17,9 +17,11 @@ public class ChatRoom {
     private String sellerEmail; // JOIN으로 조회됨
     private String lastMessage;
     private LocalDateTime lastMessageTime;
+    private Integer lastMessageId; // 마지막으로 저장된 메시지 ID
     private String status; // ACTIVE, COMPLETED, CANCELLED
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Integer messageCount; // 전체 메시지 수 (메시지 저장 시 +1)
     private Integer unreadCount; // 읽지 않은 메시지 수
     
     // 추가 정보 (조인 결과)
@@ -27,6 +27,7 @@ public class BoardService {
     private final UserMapper userMapper;
     private final TokenUtils tokenUtils;
     private final FileStorageService fileStorageService;
+    private final MediaBlobService mediaBlobService;
 
     /**
      * 게시판 생성
@@ -158,18 +159,16 @@ public class BoardService {
         }
 
         try {
-            // 기존 이미지가 있으면 삭제
-            if (board.getImagePath() != null) {
-                // 이미지 삭제 로직 (필요 시 구현)
-            }
-
-            // 새 이미지 저장
-            String imagePath = "/board-images/" + boardId + "/" + System.currentTimeMillis() + "_" + image.getOriginalFilename();
-            fileStorageService.storeFile(image, "board-images/" + boardId, image.getOriginalFilename());
+            // 새 이미지 저장 (같은 내용의 이미지가 있으면 재사용)
+            String imagePath = fileStorageService.storeFile(image);
 
             // 이미지 경로 업데이트
             boardMapper.updateBoardImage(boardId, imagePath);
 
+            // 기존 이미지 참조 해제 (커밋 후, 다른 곳에서 참조하지 않으면 파일 삭제)
+            // 같은 내용을 다시 올려 경로가 같아도 storeFile 에서 참조가 하나 늘었으므로 항상 해제
+            mediaBlobService.release(board.getImagePath());
+
             // 업데이트된 정보 조회
             Board updatedBoard = boardMapper.findBoardById(boardId);
             return convertToResponse(updatedBoard);
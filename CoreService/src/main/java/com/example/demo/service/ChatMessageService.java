@@ -4,12 +4,15 @@ import com.example.demo.dto.chat.ChatMessageRequest;
 import com.example.demo.dto.chat.ChatMessagesResponse;
 import com.example.demo.mapper.ChatMessageMapper;
 import com.example.demo.mapper.ChatRoomMapper;
-import com.example.demo.mapper.Market.ProductMapper;
+import com.example.demo.service.Market.ProductDetailCache;
 import com.example.demo.mapper.UserMapper;
 import com.example.demo.model.Market.Product;
 import com.example.demo.model.User;
 import com.example.demo.model.chat.ChatMessage;
 import com.example.demo.model.chat.ChatRoom;
+import com.example.demo.storage.MediaStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -17,15 +20,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Service
@@ -34,9 +38,19 @@ import java.util.UUID;
 public class ChatMessageService {
     private final ChatMessageMapper chatMessageMapper;
     private final ChatRoomMapper chatRoomMapper;
-    private final ProductMapper productMapper;
+    private final ProductDetailCache productDetailCache;
     private final UserMapper userMapper;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final MediaStore mediaStore;
+    private final ChatUnreadCounter chatUnreadCounter;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+    private final ChatRecentMessageCache chatRecentMessageCache;
+
+    // 발신자 닉네임 캐시 (메시지 전송마다 사용자 조회 방지)
+    private final Cache<String, String> senderNameCache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(10_000)
+            .build();
 
     // 📌 `@Qualifier`를 필드에 직접 적용하여 명확하게 지정
     private final @Qualifier("chatChannelTopic") ChannelTopic chatChannelTopic;
@@ -44,13 +58,16 @@ public class ChatMessageService {
     @Value("${chat.default.page-size:20}")
     private int defaultPageSize;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     // 이미지 저장 경로 설정 - resources/static 하위 폴더로 변경
-    private final String CHAT_IMAGE_DIR = System.getProperty("user.dir") + "/src/main/resources/static/chat-images";
+    private final String CHAT_IMAGE_DIR = "chat-images"; // MediaStore key 접두사 (웹 경로는 "/chat-images/...")
 
     /**
      * 메시지 전송
+     * - 메시지 ID 발급 + Redis Stream 추가 후 바로 발행 (DB 저장은 ChatMessageWriteBehind 가 batch 로 처리)
+     * - 전송 경로의 DB 접근은 채팅방 권한 확인뿐 (상품/발신자 닉네임은 캐시 사용)
      */
-    @Transactional
     public ChatMessage sendMessage(String senderEmail, ChatMessageRequest request) {
         // 채팅방 존재 여부 확인
         ChatRoom chatRoom = chatRoomMapper.findChatRoomById(request.getChatroomId(), senderEmail);
@@ -59,7 +76,7 @@ public class ChatMessageService {
         }
         
         // 채팅방과 연결된 상품 정보 가져오기
-        Product product = productMapper.findById(chatRoom.getProductId(), senderEmail);
+        Product product = productDetailCache.findById(chatRoom.getProductId(), senderEmail);
         if (product == null) {
             throw new IllegalArgumentException("상품 정보를 찾을 수 없습니다.");
         }
@@ -84,42 +101,16 @@ public class ChatMessageService {
                 .isRead(false)
                 .build();
         
-        // 메시지 저장
-        chatMessageMapper.saveChatMessage(message);
-        
-        // 채팅방 정보 업데이트 (마지막 메시지, 시간)
-        String lastMessage = "";
-        
-        // 메시지 타입에 따라 lastMessage 다르게 설정
-        switch (request.getMessageType()) {
-            case "TEXT":
-                lastMessage = request.getContent();
-                break;
-            case "IMAGE":
-                lastMessage = "이미지를 보냈습니다.";
-                break;
-            case "FILE":
-                lastMessage = "파일을 보냈습니다.";
-                break;
-            case "OFFER":
-                lastMessage = "제안을 보냈습니다.";
-                break;
-            default:
-                lastMessage = request.getContent();
-        }
-        
-        // updateChatRoom 대신 updateChatRoomLastMessage 사용
-        chatRoomMapper.updateChatRoomLastMessage(
-                request.getChatroomId(),
-                lastMessage,
-                message.getSentAt()
-        );
-        
         // 발신자 정보 추가 (for 실시간 메시지)
-        User sender = userMapper.findByEmail(senderEmail);
-        if (sender != null) {
-            message.setSenderName(sender.getNickname());
-        }
+        message.setSenderName(findSenderName(senderEmail));
+        
+        // 메시지 ID 발급 및 저장 대기열(Redis Stream)에 추가
+        chatMessageWriteBehind.append(message);
+        chatRecentMessageCache.append(message);
+
+        // 수신자의 읽지 않은 메시지 수 +1
+        String receiverEmail = senderEmail.equals(sellerEmail) ? requestEmail : sellerEmail;
+        chatUnreadCounter.increment(receiverEmail, request.getChatroomId());
         
         try {
             // Redis를 통해 메시지 발행
@@ -131,10 +122,48 @@ public class ChatMessageService {
         return message;
     }
 
+    /**
+     * 채팅방 목록에 표시할 마지막 메시지 (메시지 타입에 따라 다르게 설정)
+     */
+    public static String lastMessageOf(ChatMessage message) {
+        if (message.getMessageType() == null) {
+            return message.getContent();
+        }
+        switch (message.getMessageType()) {
+            case "IMAGE":
+                return "이미지를 보냈습니다.";
+            case "FILE":
+                return "파일을 보냈습니다.";
+            case "OFFER":
+                return "제안을 보냈습니다.";
+            default:
+                return message.getContent();
+        }
+    }
+
+    /** 발신자 닉네임 (로컬 캐시, 없으면 DB 조회) **/
+    private String findSenderName(String senderEmail) {
+        return senderNameCache.get(senderEmail, email -> {
+            User sender = userMapper.findByEmail(email);
+            return sender != null ? sender.getNickname() : null;
+        });
+    }
+
     /**
      * 채팅방 메시지 목록 조회
+     * - 커서를 지정하지 않으면 가장 최근 메시지 size 개 (첫 화면)
+     * - before: 해당 메시지 이전 메시지 (위로 스크롤), after: 해당 메시지 이후 메시지 (재접속 시 누락분), 함께 지정할 수 없음
+     * - 전체 메시지 수는 COUNT(*) 대신 채팅방의 message_count 사용
      */
-    public ChatMessagesResponse getChatMessages(Integer chatroomId, String userEmail, Integer page, Integer size) {
+    public ChatMessagesResponse getChatMessages(Integer chatroomId, String userEmail, Integer page, Integer size,
+                                                Integer beforeId, Integer afterId) {
+        if (beforeId != null && afterId != null) {
+            return ChatMessagesResponse.builder()
+                    .success(false)
+                    .message("before 와 after 는 함께 지정할 수 없습니다.")
+                    .build();
+        }
+
         // 채팅방 존재 여부 확인
         ChatRoom chatRoom = chatRoomMapper.findChatRoomById(chatroomId, userEmail);
         if (chatRoom == null) {
@@ -145,7 +174,7 @@ public class ChatMessageService {
         }
         
         // 채팅방과 연결된 상품 정보 가져오기
-        Product product = productMapper.findById(chatRoom.getProductId(), userEmail);
+        Product product = productDetailCache.findById(chatRoom.getProductId(), userEmail);
         if (product == null) {
             return ChatMessagesResponse.builder()
                     .success(false)
@@ -165,31 +194,112 @@ public class ChatMessageService {
                     .build();
         }
         
-        // 페이징 처리
-        int pageSize = (size != null && size > 0) ? size : defaultPageSize;
-        int pageNum = (page != null && page >= 0) ? page : 0;
-        int offset = pageNum * pageSize;
-        
-        // 메시지 목록 조회
-        List<ChatMessage> messages = chatMessageMapper.findMessagesByChatRoomId(chatroomId, offset, pageSize);
-        
-        // 총 메시지 수
-        int totalCount = chatMessageMapper.countMessagesByChatRoomId(chatroomId);
+        int pageSize = (size != null && size > 0) ? Math.min(size, MAX_PAGE_SIZE) : defaultPageSize;
+        int totalCount = chatRoom.getMessageCount() != null ? chatRoom.getMessageCount() : 0;
         int totalPages = (totalCount + pageSize - 1) / pageSize;
-        
-        // 메시지 읽음 상태 업데이트
-        chatMessageMapper.updateMessageReadStatus(chatroomId, userEmail);
-        
+
+        // 기존 페이지 번호 조회 (오래된 순 OFFSET, 커서를 지정하지 않은 이전 클라이언트용)
+        if (page != null && beforeId == null && afterId == null) {
+            int pageNum = Math.max(page, 0);
+            List<ChatMessage> messages = chatMessageMapper.findMessagesByChatRoomId(chatroomId, pageNum * pageSize, pageSize);
+
+            // 메시지 읽음 상태 업데이트 (읽음 위치 갱신 + 읽지 않은 메시지 카운터 초기화)
+            chatUnreadCounter.markRead(chatroomId, userEmail);
+
+            return ChatMessagesResponse.builder()
+                    .success(true)
+                    .message("메시지 목록 조회 성공")
+                    .messages(messages)
+                    .totalCount(totalCount)
+                    .totalPages(totalPages)
+                    .currentPage(pageNum)
+                    .build();
+        }
+
+        // 첫 화면은 최근 메시지 캐시에서 조회 (읽음 여부는 캐시에 담지 않고 멤버별 읽음 위치로 계산)
+        List<ChatMessage> messages = beforeId == null && afterId == null
+                ? chatRecentMessageCache.findRecentMessages(chatroomId, pageSize + 1)
+                : null;
+        boolean hasMore;
+        if (messages != null) {
+            hasMore = messages.size() > pageSize;
+            if (hasMore) {
+                messages = new ArrayList<>(messages.subList(1, messages.size()));
+            }
+            applyReadStatus(chatroomId, messages);
+        } else {
+            // 커서 조회: 한 건 더 읽어 다음 메시지가 있는지 확인
+            messages = afterId != null
+                    ? findMessagesAfter(chatroomId, afterId, pageSize + 1)
+                    : chatMessageMapper.findMessagesByCursor(chatroomId, beforeId, null, pageSize + 1);
+            hasMore = messages.size() > pageSize;
+            if (hasMore) {
+                messages = new ArrayList<>(messages.subList(0, pageSize));
+            }
+            if (afterId == null) {
+                Collections.reverse(messages); // 최신순으로 조회한 메시지를 화면 표시 순서(오래된 순)로
+            }
+        }
+
+        // 가장 최근 메시지까지 본 경우에만 읽음 처리 (이전 메시지, 아직 뒤에 메시지가 남은 after 페이지는 생략)
+        if (beforeId == null && (afterId == null || !hasMore)) {
+            chatUnreadCounter.markRead(chatroomId, userEmail);
+        }
+
         return ChatMessagesResponse.builder()
                 .success(true)
                 .message("메시지 목록 조회 성공")
                 .messages(messages)
                 .totalCount(totalCount)
                 .totalPages(totalPages)
-                .currentPage(pageNum)
+                .oldestMessageId(messages.isEmpty() ? beforeId : messages.get(0).getMessageId())
+                .newestMessageId(messages.isEmpty() ? afterId : messages.get(messages.size() - 1).getMessageId())
+                .hasMore(hasMore)
                 .build();
     }
 
+    /**
+     * after 커서 조회 (오래된 순, 최대 limit 개)
+     * 아직 DB 에 저장되지 않은 메시지(write-behind Stream)를 함께 합쳐, 앞선 메시지가 저장 대기 중일 때 뒤 메시지만 돌려주지 않도록 함
+     */
+    private List<ChatMessage> findMessagesAfter(Integer chatroomId, Integer afterId, int limit) {
+        // Stream 을 DB 보다 먼저 읽어야 그 사이 저장된 메시지가 양쪽 모두에서 빠지지 않음
+        List<ChatMessage> unsaved = new ArrayList<>();
+        for (ChatMessage message : chatMessageWriteBehind.findUnsavedMessages()) {
+            if (chatroomId.equals(message.getChatroomId()) && message.getMessageId() > afterId) {
+                unsaved.add(message);
+            }
+        }
+
+        List<ChatMessage> saved = chatMessageMapper.findMessagesByCursor(chatroomId, null, afterId, limit);
+        if (unsaved.isEmpty()) {
+            return saved;
+        }
+
+        applyReadStatus(chatroomId, unsaved);
+        TreeMap<Integer, ChatMessage> merged = new TreeMap<>();
+        saved.forEach(message -> merged.put(message.getMessageId(), message));
+        unsaved.forEach(message -> merged.putIfAbsent(message.getMessageId(), message));
+        List<ChatMessage> messages = new ArrayList<>(merged.values());
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    /** 상대방의 읽음 위치 이하인 메시지를 읽음으로 표시 **/
+    private void applyReadStatus(Integer chatroomId, List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> watermarks = chatUnreadCounter.getReadWatermarks(chatroomId);
+        for (ChatMessage message : messages) {
+            Integer lastReadMessageId = watermarks.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(message.getSenderEmail()))
+                    .map(Map.Entry::getValue)
+                    .max(Integer::compare)
+                    .orElse(0);
+            message.setRead(message.getMessageId() <= lastReadMessageId);
+        }
+    }
+
     /**
      * 메시지 읽음 상태 업데이트
      */
@@ -201,7 +311,7 @@ public class ChatMessageService {
         }
         
         // 채팅방과 연결된 상품 정보 가져오기
-        Product product = productMapper.findById(chatRoom.getProductId(), receiverEmail);
+        Product product = productDetailCache.findById(chatRoom.getProductId(), receiverEmail);
         if (product == null) {
             throw new IllegalArgumentException("상품 정보를 찾을 수 없습니다.");
         }
@@ -214,21 +324,14 @@ public class ChatMessageService {
             throw new IllegalArgumentException("해당 채팅방에 접근 권한이 없습니다.");
         }
         
-        // 메시지 읽음 상태 업데이트
-        chatMessageMapper.updateMessageReadStatus(chatroomId, receiverEmail);
-        
-        // 업데이트 된 메시지가 있는지 확인
-        int unreadCount = chatMessageMapper.countUnreadMessages(chatroomId, receiverEmail);
-        
-        // 채팅방의 읽지 않은 메시지 카운트 업데이트
-        // unreadCount가 0이 되었으므로 메시지를 모두 읽었다는 의미
-        return unreadCount == 0;
+        // 읽음 위치를 마지막 메시지로 옮기면 채팅방의 모든 메시지가 읽음 상태가 됨
+        chatUnreadCounter.markRead(chatroomId, receiverEmail);
+        return true;
     }
 
     /**
      * 이미지 메시지 전송
      */
-    @Transactional
     public ChatMessage sendImageMessage(String userEmail, Integer chatroomId, MultipartFile image) {
         try {
             // 채팅방 존재 여부 확인
@@ -237,13 +340,6 @@ public class ChatMessageService {
                 throw new RuntimeException("존재하지 않는 채팅방입니다.");
             }
             
-            // 이미지 저장 디렉토리 확인 및 생성
-            Path chatImageDir = Paths.get(CHAT_IMAGE_DIR, "chatroom_" + chatroomId);
-            if (!Files.exists(chatImageDir)) {
-                Files.createDirectories(chatImageDir);
-                log.info("채팅 이미지 저장 디렉토리 생성: {}", chatImageDir);
-            }
-            
             // 이미지 파일 저장
             String originalFilename = image.getOriginalFilename();
             String extension = "";
@@ -252,12 +348,14 @@ public class ChatMessageService {
             }
             
             String newFilename = UUID.randomUUID().toString() + extension;
-            Path imagePath = chatImageDir.resolve(newFilename);
-            Files.copy(image.getInputStream(), imagePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("채팅 이미지 저장 완료: {}", imagePath);
+            String key = CHAT_IMAGE_DIR + "/chatroom_" + chatroomId + "/" + newFilename;
+            try (InputStream inputStream = image.getInputStream()) {
+                mediaStore.put(key, inputStream, image.getSize(), image.getContentType());
+            }
+            log.info("채팅 이미지 저장 완료: {}", key);
             
             // 이미지 경로 설정 (웹에서 접근 가능한 경로)
-            String imageUrl = "/chat-images/chatroom_" + chatroomId + "/" + newFilename;
+            String imageUrl = "/" + key;
             
             // 이미지 메시지 생성 및 저장
             ChatMessageRequest request = new ChatMessageRequest();
@@ -0,0 +1,435 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.mapper.ChatRoomMapper;
+import com.example.demo.model.chat.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅 메시지 write-behind 저장
+ * - 전송 시: Redis 에서 메시지 ID 를 발급하고 Redis Stream("chat:messages:stream")에 추가 (스크립트 한 번, DB 접근 없음)
+ * - 저장 스레드: consumer group 으로 Stream 을 읽어 여러 행 INSERT 한 번 + 채팅방별 마지막 메시지/메시지 수 UPDATE 한 번으로 저장
+ * - 저장이 커밋된 항목만 XACK/XDEL 하므로 서버가 중간에 종료되어도 재시작 후 pending 항목부터 다시 저장
+ *   (다른 노드가 오래 처리하지 못한 pending 항목은 claim 해서 대신 저장, 이미 저장된 메시지는 ID 와 내용을 비교해 걸러냄)
+ * - DB 장애 등 일시적인 오류는 pending 으로 남겨 다시 저장하고, 다시 저장해도 실패할 항목(파싱 실패, 제약 조건 위반)만
+ *   dead letter Stream 으로 옮김
+ * - Stream 에 남은 항목 = 아직 DB 에 저장되지 않은 메시지이므로, DB 만 보는 조회(after 커서, 읽지 않은 수 재계산)는
+ *   findUnsavedMessages 로 함께 읽어 합침 (앞선 메시지가 pending 인 동안 뒤 메시지가 먼저 저장되어도 빠지지 않도록)
+ */
+@Slf4j
+@Component
+public class ChatMessageWriteBehind {
+
+    private static final String STREAM_KEY = "chat:messages:stream";
+    private static final String DEAD_LETTER_KEY = "chat:messages:dead";
+    static final String ID_KEY = "chat:messages:id"; // 마지막으로 발급한 메시지 ID (읽지 않은 수 재계산 시 기준으로도 사용)
+    private static final String LATEST_KEY = "chat:messages:latest"; // 채팅방별 마지막 메시지 ID (아직 저장 전인 메시지 포함)
+    private static final String GROUP = "chat-message-writer";
+
+    // 메시지 ID 발급과 Stream 추가를 한 번에 처리 (Stream 순서 = ID 순서)
+    // 카운터가 없으면(Redis 재시작/초기화) 발급하지 않고 -1 반환 (DB 기준으로 다시 맞춘 뒤 재시도)
+    // 카운터가 이 노드가 알고 있는 마지막 ID(ARGV[3])보다 작으면(이전 스냅샷으로 복구) 먼저 올림
+    private static final DefaultRedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) "
+                    + "if not current then return -1 end "
+                    + "local floor = tonumber(ARGV[3]) "
+                    + "if tonumber(current) < floor then redis.call('SET', KEYS[1], floor) end "
+                    + "local id = redis.call('INCR', KEYS[1]) "
+                    + "redis.call('XADD', KEYS[2], '*', 'id', id, 'payload', ARGV[1]) "
+                    + "redis.call('HSET', KEYS[3], ARGV[2], id) "
+                    + "return id",
+            Long.class);
+
+    // ID 카운터를 DB 의 마지막 메시지 ID 이상으로 맞춤 (Redis 초기화/복구 시 ID 중복 방지)
+    private static final DefaultRedisScript<Long> SEED_ID_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "local seed = tonumber(ARGV[1]) "
+                    + "if current < seed then redis.call('SET', KEYS[1], seed) return seed end "
+                    + "return current",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageMapper chatMessageMapper;
+    private final ChatRoomMapper chatRoomMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // 이 노드가 알고 있는 마지막 메시지 ID (DB 최대값 또는 발급받은 ID, Redis 카운터가 뒤로 돌아가지 않도록 함께 전달)
+    private final AtomicLong knownMaxMessageId = new AtomicLong();
+
+    // 저장 주기 (밀리초)
+    @Value("${chat.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // 한 번에 저장할 최대 메시지 수
+    @Value("${chat.write-behind.batch-size:500}")
+    private int batchSize;
+
+    // 이 시간 이상 처리되지 않은 pending 항목은 다시 가져와 저장 (초)
+    @Value("${chat.write-behind.claim-idle-seconds:30}")
+    private long claimIdleSeconds;
+
+    // 아직 저장되지 않은 메시지를 조회할 때 Stream 에서 읽을 최대 항목 수
+    @Value("${chat.write-behind.unsaved-scan-limit:10000}")
+    private int unsavedScanLimit;
+
+    // consumer 이름 (재시작 후에도 같은 이름이면 자신의 pending 항목을 바로 이어서 저장)
+    @Value("${chat.write-behind.consumer-name:}")
+    private String consumerName;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public ChatMessageWriteBehind(StringRedisTemplate stringRedisTemplate,
+                                  ChatMessageMapper chatMessageMapper,
+                                  ChatRoomMapper chatRoomMapper,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatMessageMapper = chatMessageMapper;
+        this.chatRoomMapper = chatRoomMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (consumerName == null || consumerName.isBlank()) {
+            consumerName = "writer-" + UUID.randomUUID();
+        }
+        log.info("Initializing chat message write-behind (consumer={}, interval={}ms, batchSize={})",
+                consumerName, flushIntervalMs, batchSize);
+
+        createGroup();
+        seedMessageId();
+
+        // 재시작 전에 이 consumer 가 받아 두고 저장하지 못한 항목부터 저장
+        scheduler.execute(() -> flush(ReadOffset.from("0")));
+        scheduler.scheduleWithFixedDelay(() -> flush(ReadOffset.lastConsumed()),
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::recover, claimIdleSeconds, claimIdleSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Shutting down chat message write-behind");
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(ReadOffset.lastConsumed()); // 종료 전 남은 메시지 저장
+    }
+
+    /**
+     * 메시지 ID 발급 후 Stream 에 추가 (DB 저장은 저장 스레드가 처리)
+     * @return 발급된 메시지 ID 가 설정된 메시지
+     */
+    public ChatMessage append(ChatMessage message) {
+        try {
+            message.setMessageId(null);
+            String payload = objectMapper.writeValueAsString(message);
+            Long messageId = appendToStream(payload, message.getChatroomId());
+            if (messageId == null || messageId < 0) {
+                // 카운터가 사라진 경우 DB 기준으로 다시 맞춘 뒤 한 번 더 시도
+                seedMessageId();
+                messageId = appendToStream(payload, message.getChatroomId());
+            }
+            if (messageId == null || messageId < 0) {
+                throw new IllegalStateException("메시지 ID 를 발급할 수 없습니다.");
+            }
+            knownMaxMessageId.accumulateAndGet(messageId, Math::max);
+            message.setMessageId(messageId.intValue());
+            return message;
+        } catch (Exception e) {
+            throw new IllegalStateException("메시지를 저장할 수 없습니다.", e);
+        }
+    }
+
+    /**
+     * 채팅방의 마지막 메시지 ID (아직 DB 에 저장되지 않은 메시지 포함, Redis 에 없으면 DB 조회)
+     */
+    public Integer findLatestMessageId(Integer chatroomId) {
+        try {
+            Object latest = stringRedisTemplate.opsForHash().get(LATEST_KEY, String.valueOf(chatroomId));
+            if (latest != null) {
+                return Integer.valueOf(latest.toString());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read latest chat message id: {}", e.getMessage());
+        }
+        return chatMessageMapper.findLatestMessageId(chatroomId);
+    }
+
+    /**
+     * 아직 DB 에 저장되지 않은 메시지 (Stream 에 남은 항목, ID 순)
+     * - 저장이 커밋된 뒤에만 Stream 에서 삭제되므로 DB 조회보다 먼저 읽어 합치면 그 사이 저장된 메시지도 빠지지 않음
+     * - Redis 오류 시 빈 목록 (DB 에 저장된 메시지만 조회)
+     */
+    public List<ChatMessage> findUnsavedMessages() {
+        try {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .range(STREAM_KEY, Range.unbounded(), Limit.limit().count(unsavedScanLimit));
+            if (records == null || records.isEmpty()) {
+                return new ArrayList<>();
+            }
+            if (records.size() >= unsavedScanLimit) {
+                log.warn("Unsaved chat messages exceed scan limit ({}), newer ones are not merged", unsavedScanLimit);
+            }
+            return records.stream()
+                    .map(this::parse)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.warn("Failed to read unsaved chat messages: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private Long appendToStream(String payload, Integer chatroomId) {
+        return stringRedisTemplate.execute(
+                APPEND_SCRIPT, Arrays.asList(ID_KEY, STREAM_KEY, LATEST_KEY),
+                payload, String.valueOf(chatroomId), String.valueOf(knownMaxMessageId.get()));
+    }
+
+    /** Stream 을 읽어 batch 가 가득 차지 않을 때까지 저장 **/
+    private void flush(ReadOffset offset) {
+        try {
+            List<MapRecord<String, Object, Object>> records;
+            do {
+                records = stringRedisTemplate.opsForStream().read(
+                        Consumer.from(GROUP, consumerName),
+                        StreamReadOptions.empty().count(batchSize),
+                        StreamOffset.create(STREAM_KEY, offset));
+                if (records == null || records.isEmpty()) {
+                    return;
+                }
+                write(records);
+            } while (records.size() >= batchSize);
+        } catch (Exception e) {
+            log.error("Failed to flush chat messages: {}", e.getMessage());
+        }
+    }
+
+    /** 다른 consumer(종료된 노드 등)가 오래 처리하지 못한 pending 항목을 가져와 저장 **/
+    private void recover() {
+        try {
+            seedMessageId();
+
+            PendingMessages pending = stringRedisTemplate.opsForStream()
+                    .pending(STREAM_KEY, GROUP, Range.unbounded(), batchSize);
+            Duration minIdle = Duration.ofSeconds(claimIdleSeconds);
+            List<RecordId> idleIds = new ArrayList<>();
+            for (PendingMessage message : pending) {
+                if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0) {
+                    idleIds.add(message.getId());
+                }
+            }
+            if (idleIds.isEmpty()) {
+                return;
+            }
+
+            List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream()
+                    .claim(STREAM_KEY, GROUP, consumerName, minIdle, idleIds.toArray(new RecordId[0]));
+            if (!claimed.isEmpty()) {
+                log.info("Recovering {} pending chat messages", claimed.size());
+                write(claimed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to recover pending chat messages: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stream 항목 저장 후 XACK/XDEL
+     * - batch 전체 저장이 실패하면 한 건씩 다시 저장하고, 제약 조건 위반으로 실패하는 항목만 dead letter Stream 으로 옮김
+     * - 일시적인 DB 오류면 pending 으로 남겨 두고 중단 (다음 recover 에서 다시 저장)
+     */
+    void write(List<MapRecord<String, Object, Object>> records) {
+        Map<RecordId, ChatMessage> messages = new LinkedHashMap<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            ChatMessage message = parse(record);
+            if (message != null) {
+                messages.put(record.getId(), message);
+            } else {
+                moveToDeadLetter(record);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(new ArrayList<>(messages.values())));
+            acknowledge(messages.keySet());
+        } catch (Exception e) {
+            if (!isPermanentFailure(e)) {
+                log.warn("Chat message batch failed, leaving {} entries pending: {}", messages.size(), e.getMessage());
+                return;
+            }
+            log.warn("Chat message batch failed, retrying one by one: {}", e.getMessage());
+            for (MapRecord<String, Object, Object> record : records) {
+                ChatMessage message = messages.get(record.getId());
+                if (message == null) {
+                    continue;
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> save(List.of(message)));
+                    acknowledge(Set.of(record.getId()));
+                } catch (Exception ex) {
+                    if (!isPermanentFailure(ex)) {
+                        log.warn("Failed to save chat message {}, leaving remaining entries pending: {}",
+                                message.getMessageId(), ex.getMessage());
+                        return;
+                    }
+                    log.error("Failed to save chat message {}: {}", message.getMessageId(), ex.getMessage());
+                    moveToDeadLetter(record);
+                }
+            }
+        }
+    }
+
+    /** 다시 저장해도 실패할 오류인지 (제약 조건 위반, ID 충돌), 그 외 DB 오류는 다시 시도 **/
+    static boolean isPermanentFailure(Exception e) {
+        return e instanceof DataIntegrityViolationException;
+    }
+
+    /**
+     * 메시지 INSERT (이미 저장된 메시지 제외) + 채팅방별 마지막 메시지/메시지 수 갱신
+     * 같은 ID 로 다른 메시지가 저장되어 있으면 ID 충돌로 보고 실패 (카운터를 DB 기준으로 다시 맞춤)
+     */
+    private void save(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<Integer> messageIds = messages.stream().map(ChatMessage::getMessageId).collect(Collectors.toList());
+        Map<Integer, ChatMessage> existing = chatMessageMapper.findMessagesByIds(messageIds).stream()
+                .collect(Collectors.toMap(ChatMessage::getMessageId, message -> message));
+        for (ChatMessage message : messages) {
+            ChatMessage saved = existing.get(message.getMessageId());
+            if (saved != null && !isSameMessage(saved, message)) {
+                log.error("Chat message id collision: {} (chatroom {} / {})",
+                        message.getMessageId(), message.getChatroomId(), saved.getChatroomId());
+                seedMessageId();
+                throw new DataIntegrityViolationException("메시지 ID 가 이미 다른 메시지에 사용되었습니다: " + message.getMessageId());
+            }
+        }
+        List<ChatMessage> newMessages = messages.stream()
+                .filter(message -> !existing.containsKey(message.getMessageId()))
+                .sorted(Comparator.comparing(ChatMessage::getMessageId))
+                .collect(Collectors.toList());
+        if (newMessages.isEmpty()) {
+            return;
+        }
+
+        chatMessageMapper.insertChatMessages(newMessages);
+
+        Map<Integer, List<ChatMessage>> byChatRoom = newMessages.stream()
+                .collect(Collectors.groupingBy(ChatMessage::getChatroomId, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<Integer, List<ChatMessage>> entry : byChatRoom.entrySet()) {
+            List<ChatMessage> roomMessages = entry.getValue();
+            ChatMessage last = roomMessages.get(roomMessages.size() - 1);
+            chatRoomMapper.applyFlushedMessages(
+                    entry.getKey(),
+                    last.getMessageId(),
+                    ChatMessageService.lastMessageOf(last),
+                    last.getSentAt(),
+                    roomMessages.size());
+        }
+    }
+
+    /** 재처리로 이미 저장된 같은 메시지인지 (sent_at 은 DB 정밀도 차이가 있어 비교하지 않음) **/
+    private static boolean isSameMessage(ChatMessage saved, ChatMessage message) {
+        return Objects.equals(saved.getChatroomId(), message.getChatroomId())
+                && Objects.equals(saved.getSenderEmail(), message.getSenderEmail())
+                && Objects.equals(saved.getContent(), message.getContent());
+    }
+
+    private ChatMessage parse(MapRecord<String, Object, Object> record) {
+        try {
+            Object id = record.getValue().get("id");
+            Object payload = record.getValue().get("payload");
+            ChatMessage message = objectMapper.readValue(payload.toString(), ChatMessage.class);
+            message.setMessageId(Integer.valueOf(id.toString()));
+            return message;
+        } catch (Exception e) {
+            log.error("Invalid chat message stream entry {}: {}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void acknowledge(Set<RecordId> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        RecordId[] ids = recordIds.toArray(new RecordId[0]);
+        stringRedisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP, ids);
+        stringRedisTemplate.opsForStream().delete(STREAM_KEY, ids);
+    }
+
+    private void moveToDeadLetter(MapRecord<String, Object, Object> record) {
+        try {
+            stringRedisTemplate.opsForStream().add(DEAD_LETTER_KEY, record.getValue());
+            acknowledge(Set.of(record.getId()));
+        } catch (Exception e) {
+            log.error("Failed to move chat message {} to dead letter stream: {}", record.getId(), e.getMessage());
+        }
+    }
+
+    /** consumer group 생성 (Stream 이 없으면 함께 생성, 이미 있으면 무시) **/
+    private void createGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> createGroup(connection));
+        } catch (Exception e) {
+            log.debug("Chat message consumer group already exists: {}", e.getMessage());
+        }
+    }
+
+    private static String createGroup(RedisConnection connection) {
+        return connection.streamCommands().xGroupCreate(
+                STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP, ReadOffset.from("0"), true);
+    }
+
+    private void seedMessageId() {
+        Integer latestMessageId = chatMessageMapper.findMaxMessageId();
+        long seed = knownMaxMessageId.accumulateAndGet(latestMessageId != null ? latestMessageId : 0, Math::max);
+        stringRedisTemplate.execute(SEED_ID_SCRIPT, List.of(ID_KEY), String.valueOf(seed));
+    }
+}
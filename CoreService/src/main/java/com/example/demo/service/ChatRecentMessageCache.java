@@ -0,0 +1,293 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.model.chat.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채팅방별 최근 메시지 캐시 (채팅방을 열 때 첫 화면 메시지를 DB 조회 없이 제공)
+ * - 1차: 노드 로컬 메모리, 채팅방마다 최근 N개만 보관하고 채팅방 수가 최대치를 넘으면 적게 쓰는 채팅방부터 제거
+ * - 2차: Redis List("chat:recent:{chatroomId}", 오래된 순), 다른 노드나 재시작 후에도 DB 대신 사용
+ * - 전송된 메시지는 항상 Redis List 에 추가하고, 최근 N개가 빠짐없이 채워진 채팅방만 "chat:recent:{chatroomId}:full" 로 표시
+ *   (표시가 없으면 DB 에서 읽어 아직 DB 에 저장되지 않은 최근 메시지와 합쳐 채움)
+ * - 로컬 캐시는 채팅 채널(Redis Pub/Sub)로 받은 메시지로 갱신하므로 다른 노드에서 보낸 메시지도 반영됨
+ */
+@Slf4j
+@Component
+public class ChatRecentMessageCache {
+
+    private static final String KEY_PREFIX = "chat:recent:";
+
+    // 메시지 추가 후 최근 N개만 남김
+    private static final DefaultRedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('RPUSH', KEYS[1], ARGV[1]) "
+                    + "redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1) "
+                    + "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3])) "
+                    + "if redis.call('EXISTS', KEYS[2]) == 1 then redis.call('EXPIRE', KEYS[2], tonumber(ARGV[3])) end "
+                    + "return 1",
+            Long.class);
+
+    // 조회 이후 새 메시지가 추가되지 않았을 때만 목록을 교체하고 채워졌다고 표시
+    private static final DefaultRedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "local last = redis.call('LINDEX', KEYS[1], -1) or '' "
+                    + "if last ~= ARGV[1] then return 0 end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "for i = 3, #ARGV do redis.call('RPUSH', KEYS[1], ARGV[i]) end "
+                    + "if #ARGV >= 3 then redis.call('EXPIRE', KEYS[1], tonumber(ARGV[2])) end "
+                    + "redis.call('SET', KEYS[2], '1', 'EX', tonumber(ARGV[2])) "
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageMapper chatMessageMapper;
+    private final ObjectMapper objectMapper;
+    private final Cache<Integer, RecentMessages> localCache;
+    private final int capacity;
+    private final Duration redisTtl;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ChatRecentMessageCache(StringRedisTemplate stringRedisTemplate,
+                                  ChatMessageMapper chatMessageMapper,
+                                  ObjectMapper objectMapper,
+                                  @Value("${chat.recent-cache.messages-per-room:50}") int capacity,
+                                  @Value("${chat.recent-cache.max-rooms:1000}") long maxRooms,
+                                  @Value("${chat.recent-cache.local-ttl-minutes:10}") long localTtlMinutes,
+                                  @Value("${chat.recent-cache.redis-ttl-hours:24}") long redisTtlHours) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatMessageMapper = chatMessageMapper;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+        // 채팅 채널 메시지를 놓친 경우에도 오래 남지 않도록 일정 시간 후 Redis 에서 다시 읽음
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(localTtlMinutes))
+                .maximumSize(maxRooms)
+                .build();
+    }
+
+    /**
+     * 채팅방의 최근 메시지 (오래된 순, 최대 size 개, 캐시와 공유하지 않는 복사본)
+     * size 가 캐시 크기보다 크면 null (DB 에서 조회)
+     */
+    public List<ChatMessage> findRecentMessages(Integer chatroomId, int size) {
+        if (size > capacity) {
+            return null;
+        }
+
+        RecentMessages local = localCache.getIfPresent(chatroomId);
+        if (local != null) {
+            localHits.increment();
+            return local.latest(size);
+        }
+
+        // 불러오는 동안 도착한 메시지는 onMessage 가 불러오기가 끝날 때까지 기다렸다가 추가
+        return localCache.get(chatroomId, this::load).latest(size);
+    }
+
+    /**
+     * 전송된 메시지를 Redis 캐시에 추가 (메시지를 보낸 노드에서 채팅 채널 발행 전에 한 번 호출)
+     */
+    public void append(ChatMessage message) {
+        try {
+            stringRedisTemplate.execute(APPEND_SCRIPT,
+                    Arrays.asList(keyOf(message.getChatroomId()), fullKeyOf(message.getChatroomId())),
+                    objectMapper.writeValueAsString(message),
+                    String.valueOf(capacity),
+                    String.valueOf(redisTtl.getSeconds()));
+        } catch (Exception e) {
+            // 추가하지 못하면 오래된 목록이 남지 않도록 삭제 (다음 조회 때 DB 에서 다시 채움)
+            log.warn("Failed to append recent chat message: {}", e.getMessage());
+            evict(message.getChatroomId());
+        }
+    }
+
+    /**
+     * 채팅 채널로 받은 메시지를 로컬 캐시에 추가 (모든 노드에서 호출, 캐시된 채팅방만)
+     */
+    public void onMessage(ChatMessage message) {
+        localCache.asMap().computeIfPresent(message.getChatroomId(), (chatroomId, recent) -> {
+            recent.add(message);
+            return recent;
+        });
+    }
+
+    public void evict(Integer chatroomId) {
+        localCache.invalidate(chatroomId);
+        try {
+            stringRedisTemplate.delete(Arrays.asList(keyOf(chatroomId), fullKeyOf(chatroomId)));
+        } catch (Exception e) {
+            log.warn("Failed to evict recent chat messages: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 캐시 적중률 통계
+     */
+    public Map<String, Object> stats() {
+        long local = localHits.sum();
+        long redis = redisHits.sum();
+        long miss = misses.sum();
+        long total = local + redis + miss;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localHits", local);
+        stats.put("redisHits", redis);
+        stats.put("misses", miss);
+        stats.put("hitRate", total > 0 ? (double) (local + redis) / total : 0.0);
+        stats.put("cachedRooms", localCache.estimatedSize());
+        stats.put("messagesPerRoom", capacity);
+        return stats;
+    }
+
+    /** Redis 에서 불러오고, 채워지지 않았으면 DB 에서 불러옴 **/
+    private RecentMessages load(Integer chatroomId) {
+        List<String> values = readRedis(chatroomId);
+        RecentMessages loaded = values != null && isFull(chatroomId) ? parse(values) : null;
+        if (loaded != null) {
+            redisHits.increment();
+            return loaded;
+        }
+        misses.increment();
+        return loadFromDatabase(chatroomId, values);
+    }
+
+    /** Redis List 조회 (오류 시 null) **/
+    private List<String> readRedis(Integer chatroomId) {
+        try {
+            List<String> values = stringRedisTemplate.opsForList().range(keyOf(chatroomId), 0, -1);
+            return values != null ? values : new ArrayList<>();
+        } catch (Exception e) {
+            log.warn("Failed to read recent chat messages: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isFull(Integer chatroomId) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(fullKeyOf(chatroomId)));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private RecentMessages parse(List<String> values) {
+        RecentMessages recent = new RecentMessages(capacity);
+        for (String value : values) {
+            try {
+                recent.add(objectMapper.readValue(value, ChatMessage.class));
+            } catch (Exception e) {
+                log.warn("Invalid recent chat message: {}", e.getMessage());
+                return null;
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * DB 에서 최근 N개를 읽어 Redis 에 있는 최근 메시지(아직 DB 에 저장되지 않은 메시지 포함)와 합침
+     */
+    private RecentMessages loadFromDatabase(Integer chatroomId, List<String> redisValues) {
+        RecentMessages recent = new RecentMessages(capacity);
+        chatMessageMapper.findMessagesByCursor(chatroomId, null, null, capacity).forEach(recent::add);
+        if (redisValues != null) {
+            RecentMessages pending = parse(redisValues);
+            if (pending != null) {
+                pending.latest(capacity).forEach(recent::add);
+            }
+        }
+
+        if (redisValues != null) {
+            try {
+                List<String> args = new ArrayList<>();
+                args.add(redisValues.isEmpty() ? "" : redisValues.get(redisValues.size() - 1));
+                args.add(String.valueOf(redisTtl.getSeconds()));
+                for (ChatMessage message : recent.latest(capacity)) {
+                    args.add(objectMapper.writeValueAsString(message));
+                }
+                stringRedisTemplate.execute(FILL_SCRIPT,
+                        Arrays.asList(keyOf(chatroomId), fullKeyOf(chatroomId)), args.toArray());
+            } catch (Exception e) {
+                log.warn("Failed to store recent chat messages: {}", e.getMessage());
+            }
+        }
+        return recent;
+    }
+
+    private static String fullKeyOf(Integer chatroomId) {
+        return KEY_PREFIX + chatroomId + ":full";
+    }
+
+    private static String keyOf(Integer chatroomId) {
+        return KEY_PREFIX + chatroomId;
+    }
+
+    /**
+     * 채팅방 하나의 최근 메시지 (메시지 ID 순, 최대 capacity 개)
+     * 여러 노드에서 보낸 메시지가 순서와 다르게 도착해도 ID 순으로 정렬하고 중복은 무시
+     */
+    private static final class RecentMessages {
+        private final int capacity;
+        private final TreeMap<Integer, ChatMessage> messages = new TreeMap<>();
+
+        private RecentMessages(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized void add(ChatMessage message) {
+            if (message.getMessageId() == null) {
+                return;
+            }
+            messages.put(message.getMessageId(), message);
+            while (messages.size() > capacity) {
+                messages.pollFirstEntry();
+            }
+        }
+
+        private synchronized List<ChatMessage> latest(int size) {
+            List<ChatMessage> result = new ArrayList<>(Math.min(size, messages.size()));
+            for (ChatMessage message : messages.descendingMap().values()) {
+                if (result.size() >= size) {
+                    break;
+                }
+                result.add(copyOf(message));
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        private static ChatMessage copyOf(ChatMessage message) {
+            return ChatMessage.builder()
+                    .messageId(message.getMessageId())
+                    .chatroomId(message.getChatroomId())
+                    .senderEmail(message.getSenderEmail())
+                    .content(message.getContent())
+                    .messageType(message.getMessageType())
+                    .sentAt(message.getSentAt())
+                    .isRead(message.isRead())
+                    .senderName(message.getSenderName())
+                    .senderProfileUrl(message.getSenderProfileUrl())
+                    .productId(message.getProductId())
+                    .build();
+        }
+    }
+}
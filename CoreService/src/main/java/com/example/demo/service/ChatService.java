@@ -2,8 +2,7 @@ package com.example.demo.service;
 
 import com.example.demo.dto.chat.*;
 import com.example.demo.mapper.ChatRoomMapper;
-import com.example.demo.mapper.ChatMessageMapper;
-import com.example.demo.mapper.Market.ProductMapper;
+import com.example.demo.service.Market.ProductDetailCache;
 import com.example.demo.mapper.Market.ProductRequestMapper;
 import com.example.demo.mapper.UserMapper;
 import com.example.demo.mapper.Market.ProductImageMapper;
@@ -18,7 +17,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -27,18 +25,18 @@ import java.util.List;
 public class ChatService {
 
     private final ChatRoomMapper chatRoomMapper;
-    private final ChatMessageMapper chatMessageMapper;
-    private final ProductMapper productMapper;
+    private final ProductDetailCache productDetailCache;
     private final UserMapper userMapper;
     private final ProductImageMapper productImageMapper;
     private final ProductRequestMapper productRequestMapper;
+    private final ChatUnreadCounter chatUnreadCounter;
 
     /**
      * 채팅방 생성 또는 조회
      */
     @Transactional
     public ChatRoomResponse createOrGetChatRoom(String userEmail, ChatRoomRequest request) {
-        Product product = productMapper.findById(request.getProductId(), userEmail);
+        Product product = productDetailCache.findById(request.getProductId(), userEmail);
         if (product == null) {
             return ChatRoomResponse.builder()
                     .success(false)
@@ -118,40 +116,16 @@ public class ChatService {
      * 사용자의 채팅방 목록 조회
      * - productrequests 테이블에서 대기 또는 승인 상태인 요청과 연결된 채팅방만 조회
      * - 사용자가 구매자이거나 상품 등록자인 경우에만 조회됨
+     * - 상품명/대표 이미지/상대방 닉네임은 목록 쿼리에서 함께 조회, 읽지 않은 메시지 수는 Redis 카운터에서 설정
      */
     public ChatRoomResponse getChatRoomsByUser(String userEmail) {
         List<ChatRoom> chatRooms = chatRoomMapper.findChatRoomsByUser(userEmail);
-        List<ChatRoom> enhancedChatRooms = new ArrayList<>();
-        
-        for (ChatRoom room : chatRooms) {
-            Product product = productMapper.findById(room.getProductId(), userEmail);
-            if (product != null) {
-                room.setProductName(product.getTitle());
-                
-                // 대화 상대 정보 설정
-                String otherEmail = room.getSellerEmail().equals(userEmail) ? 
-                        room.getRequestEmail() : room.getSellerEmail();
-                User otherUser = userMapper.findByEmail(otherEmail);
-                if (otherUser != null) {
-                    room.setOtherUserName(otherUser.getNickname());
-                }
-                
-                // 상품 이미지 설정
-                String thumbnailPath = getProductThumbnailImage(room.getProductId());
-                room.setProductImageUrl(thumbnailPath);
-                
-                // 읽지 않은 메시지 수 설정
-                int unreadCount = chatMessageMapper.countUnreadMessages(room.getChatroomId(), userEmail);
-                room.setUnreadCount(unreadCount);
-                
-                enhancedChatRooms.add(room);
-            }
-        }
-        
+        chatUnreadCounter.applyUnreadCounts(userEmail, chatRooms);
+
         return ChatRoomResponse.builder()
                 .success(true)
                 .message("대기 또는 승인된 요청의 채팅방 목록 조회 성공")
-                .chatRooms(enhancedChatRooms)
+                .chatRooms(chatRooms)
                 .build();
     }
 
@@ -167,7 +141,7 @@ public class ChatService {
                     .build();
         }
         
-        Product product = productMapper.findById(chatRoom.getProductId(), userEmail);
+        Product product = productDetailCache.findById(chatRoom.getProductId(), userEmail);
         if (product == null) {
             return ChatRoomResponse.builder()
                     .success(false)
@@ -215,8 +189,8 @@ public class ChatService {
                     .build();
         }
         
-        // 메시지 읽음 상태 업데이트
-        chatMessageMapper.updateMessageReadStatus(chatroomId, userEmail);
+        // 메시지 읽음 상태 업데이트 (읽음 위치 갱신 + 읽지 않은 메시지 카운터 초기화)
+        chatUnreadCounter.markRead(chatroomId, userEmail);
         
         return ChatRoomResponse.builder()
                 .success(true)
@@ -272,48 +246,16 @@ public class ChatService {
     /**
      * 모집 중이거나 승인된 채팅방 목록 조회
      * 상품 등록자는 모든 채팅방을, 신청자는 모집중이거나 승인된 채팅방만 볼 수 있음
+     * (상품명/대표 이미지/상대방 닉네임은 목록 쿼리에서 함께 조회, 읽지 않은 메시지 수는 Redis 카운터에서 설정)
      */
     public ChatRoomResponse getActiveChatRoomsByUser(String userEmail) {
         List<ChatRoom> chatRooms = chatRoomMapper.findActiveChatRoomsByUser(userEmail);
-        List<ChatRoom> enhancedChatRooms = new ArrayList<>();
-        
-        for (ChatRoom room : chatRooms) {
-            Product product = productMapper.findById(room.getProductId(), userEmail);
-            if (product != null) {
-                room.setProductName(product.getTitle());
-                
-                // 대화 상대 정보 설정
-                String otherEmail;
-                
-                if (product.getEmail().equals(userEmail)) {
-                    // 상품 등록자인 경우, 상대방은 구매자
-                    otherEmail = room.getRequestEmail();
-                } else {
-                    // 구매자/요청자인 경우, 상대방은 판매자
-                    otherEmail = product.getEmail();
-                }
-                
-                User otherUser = userMapper.findByEmail(otherEmail);
-                if (otherUser != null) {
-                    room.setOtherUserName(otherUser.getNickname());
-                }
-                
-                // 상품 이미지 설정
-                String thumbnailPath = getProductThumbnailImage(room.getProductId());
-                room.setProductImageUrl(thumbnailPath);
-                
-                // 읽지 않은 메시지 수 설정
-                int unreadCount = chatMessageMapper.countUnreadMessages(room.getChatroomId(), userEmail);
-                room.setUnreadCount(unreadCount);
-                
-                enhancedChatRooms.add(room);
-            }
-        }
-        
+        chatUnreadCounter.applyUnreadCounts(userEmail, chatRooms);
+
         return ChatRoomResponse.builder()
                 .success(true)
                 .message("채팅방 목록 조회 성공")
-                .chatRooms(enhancedChatRooms)
+                .chatRooms(chatRooms)
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,347 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.model.chat.ChatMessage;
+import com.example.demo.model.chat.ChatReadStatus;
+import com.example.demo.model.chat.ChatRoom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅 읽지 않은 메시지 수 카운터 (Redis Hash)
+ * - key "chat:unread:{email}", field 채팅방 ID → 읽지 않은 수, field "total" → 전체 합계 (배지용)
+ * - 메시지 전송 시 수신자 카운터 +1, 읽음 처리 시 해당 채팅방 카운터를 0 으로 만들고 합계에서 차감
+ * - 키가 없으면(재시작, 만료) 읽음 위치(chatroom_read_status) 기준으로 DB 에서 한 번 계산해 채움
+ *   (키를 먼저 만들어 계산하는 동안의 증가/초기화도 반영하고, 주기적으로 만료시켜 누적 오차를 DB 값으로 보정)
+ */
+@Slf4j
+@Component
+public class ChatUnreadCounter {
+
+    private static final String KEY_PREFIX = "chat:unread:";
+    private static final String TOTAL_FIELD = "total";
+    private static final String LOADING_FIELD = "loading";       // DB 에서 계산 중 표시
+    private static final String RESET_FIELD_PREFIX = "reset:";   // 계산 중에 읽음 처리된 채팅방 (계산값을 더하지 않음)
+    private static final long LOADING_TTL_SECONDS = 60;         // 계산 중 노드가 종료되어도 다시 계산되도록 짧게 유지
+    private static final String READ_KEY_PREFIX = "chat:read:"; // 채팅방별 멤버 읽음 위치 (field 이메일 → 메시지 ID)
+    private static final String LOADED_FIELD = "loaded";       // 읽음 위치를 DB 에서 불러왔는지 표시 (읽은 멤버가 없는 채팅방 포함)
+
+    // 초기화된 사용자만 증가 (초기화 전이면 다음 조회 때 DB 에서 계산)
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "redis.call('HINCRBY', KEYS[1], ARGV[1], 1) "
+                    + "return redis.call('HINCRBY', KEYS[1], '" + TOTAL_FIELD + "', 1) "
+                    + "end "
+                    + "return -1",
+            Long.class);
+
+    // 채팅방 카운터를 지우고 합계에서 차감 (조회와 삭제 사이에 증가가 끼어들지 않도록 스크립트로 처리)
+    // DB 에서 계산 중이면 읽음 처리된 채팅방으로 표시 (이전 메시지로 계산한 값이 나중에 더해지지 않도록)
+    private static final DefaultRedisScript<Long> RESET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], '" + LOADING_FIELD + "') == 1 then "
+                    + "redis.call('HSET', KEYS[1], '" + RESET_FIELD_PREFIX + "' .. ARGV[1], 1) "
+                    + "end "
+                    + "local count = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+                    + "if count > 0 then "
+                    + "redis.call('HDEL', KEYS[1], ARGV[1]) "
+                    + "redis.call('HINCRBY', KEYS[1], '" + TOTAL_FIELD + "', -count) "
+                    + "end "
+                    + "return count",
+            Long.class);
+
+    // 카운터가 없을 때만 빈 카운터를 만들고 마지막 메시지 ID 반환 (이미 있으면 -1)
+    // 이후 발급된 메시지는 increment 로 세고, 그 이전 메시지만 DB 에서 계산
+    private static final DefaultRedisScript<Long> INIT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return -1 end "
+                    + "redis.call('HSET', KEYS[1], '" + TOTAL_FIELD + "', 0, '" + LOADING_FIELD + "', 1) "
+                    + "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[1])) "
+                    + "return tonumber(redis.call('GET', KEYS[2]) or '0')",
+            Long.class);
+
+    // DB 에서 계산한 값을 더함 (계산 중에 읽음 처리된 채팅방 제외), 계산 중 표시 정리 후 보관 시간 설정
+    // ARGV[1] 보관 시간(초), ARGV[2..] 채팅방 ID, 읽지 않은 수 쌍 / 계산 중에 키가 만료되었으면 0
+    private static final DefaultRedisScript<Long> MERGE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], '" + LOADING_FIELD + "') == 0 then return 0 end "
+                    + "local total = 0 "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "if redis.call('HEXISTS', KEYS[1], '" + RESET_FIELD_PREFIX + "' .. ARGV[i]) == 0 then "
+                    + "redis.call('HINCRBY', KEYS[1], ARGV[i], tonumber(ARGV[i + 1])) "
+                    + "total = total + tonumber(ARGV[i + 1]) "
+                    + "end "
+                    + "end "
+                    + "redis.call('HINCRBY', KEYS[1], '" + TOTAL_FIELD + "', total) "
+                    + "for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do "
+                    + "if field == '" + LOADING_FIELD + "' or string.sub(field, 1, " + RESET_FIELD_PREFIX.length() + ") == '"
+                    + RESET_FIELD_PREFIX + "' then redis.call('HDEL', KEYS[1], field) end "
+                    + "end "
+                    + "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[1])) "
+                    + "return 1",
+            Long.class);
+
+    // 불러온 읽음 위치만 갱신 (큰 값만 반영)
+    private static final DefaultRedisScript<Long> READ_WATERMARK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end "
+                    + "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+                    + "local messageId = tonumber(ARGV[2]) "
+                    + "if current < messageId then redis.call('HSET', KEYS[1], ARGV[1], messageId) return messageId end "
+                    + "return current",
+            Long.class);
+
+    // DB 에서 불러온 읽음 위치 저장 (그 사이 markRead 로 올라간 값은 덮어쓰지 않도록 큰 값만 반영)
+    // ARGV[1] 보관 시간(초), ARGV[2..] 이메일, 메시지 ID 쌍
+    private static final DefaultRedisScript<Long> LOAD_WATERMARKS_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], '" + LOADED_FIELD + "', '1') "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[i]) or '0') "
+                    + "if current < tonumber(ARGV[i + 1]) then redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageMapper chatMessageMapper;
+    private final ChatMessageWriteBehind chatMessageWriteBehind;
+
+    // 카운터 보관 시간 (만료되면 DB 에서 다시 계산)
+    @Value("${chat.unread.ttl-hours:24}")
+    private long ttlHours;
+
+    public ChatUnreadCounter(StringRedisTemplate stringRedisTemplate,
+                             ChatMessageMapper chatMessageMapper,
+                             ChatMessageWriteBehind chatMessageWriteBehind) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatMessageMapper = chatMessageMapper;
+        this.chatMessageWriteBehind = chatMessageWriteBehind;
+    }
+
+    /**
+     * 수신자의 채팅방 카운터 +1 (트랜잭션 안에서 호출되면 메시지 저장이 커밋된 뒤 반영)
+     */
+    public void increment(String email, Integer chatroomId) {
+        runAfterCommit(() -> stringRedisTemplate.execute(
+                INCREMENT_SCRIPT, Collections.singletonList(keyOf(email)), String.valueOf(chatroomId)));
+    }
+
+    /**
+     * 채팅방 카운터 초기화 (읽음 처리)
+     */
+    public void reset(String email, Integer chatroomId) {
+        runAfterCommit(() -> stringRedisTemplate.execute(
+                RESET_SCRIPT, Collections.singletonList(keyOf(email)), String.valueOf(chatroomId)));
+    }
+
+    /**
+     * 채팅방 읽음 처리
+     * - 메시지마다 is_read 를 갱신하지 않고 사용자의 읽음 위치를 채팅방 마지막 메시지 ID 로 옮김
+     */
+    public void markRead(Integer chatroomId, String email) {
+        Integer latestMessageId = chatMessageWriteBehind.findLatestMessageId(chatroomId);
+        Integer lastReadMessageId = getReadWatermarks(chatroomId).get(email);
+        // 이미 마지막 메시지까지 읽었으면 DB 갱신 생략
+        if (latestMessageId != null && (lastReadMessageId == null || lastReadMessageId < latestMessageId)) {
+            chatMessageMapper.updateLastReadMessageId(chatroomId, email, latestMessageId);
+            runAfterCommit(() -> stringRedisTemplate.execute(READ_WATERMARK_SCRIPT,
+                    Collections.singletonList(READ_KEY_PREFIX + chatroomId), email, String.valueOf(latestMessageId)));
+        }
+        reset(email, chatroomId);
+    }
+
+    /**
+     * 채팅방 멤버별 읽음 위치 (Redis 에 없으면 DB 에서 불러와 저장)
+     * @return 이메일 → 마지막으로 읽은 메시지 ID
+     */
+    public Map<String, Integer> getReadWatermarks(Integer chatroomId) {
+        String key = READ_KEY_PREFIX + chatroomId;
+        Map<String, Integer> watermarks = new HashMap<>();
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
+            if (!entries.isEmpty()) {
+                entries.forEach((field, value) -> {
+                    if (!LOADED_FIELD.equals(field.toString())) {
+                        watermarks.put(field.toString(), Integer.valueOf(value.toString()));
+                    }
+                });
+                return watermarks;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read chat read watermarks: {}", e.getMessage());
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(Duration.ofHours(ttlHours).getSeconds()));
+        for (ChatReadStatus status : chatMessageMapper.findReadStatusByChatRoom(chatroomId)) {
+            if (status.getLastReadMessageId() == null) {
+                continue;
+            }
+            watermarks.put(status.getEmail(), status.getLastReadMessageId());
+            args.add(status.getEmail());
+            args.add(String.valueOf(status.getLastReadMessageId()));
+        }
+        runAfterCommit(() -> stringRedisTemplate.execute(
+                LOAD_WATERMARKS_SCRIPT, Collections.singletonList(key), args.toArray()));
+        return watermarks;
+    }
+
+    /**
+     * 채팅방별 읽지 않은 메시지 수 (카운터가 없는 채팅방은 0)
+     */
+    public Map<Integer, Integer> getUnreadCounts(String email) {
+        Map<Object, Object> entries = load(email);
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            String field = entry.getKey().toString();
+            if (isChatRoomField(field)) {
+                counts.put(Integer.valueOf(field), Integer.parseInt(entry.getValue().toString()));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 전체 읽지 않은 메시지 수 (배지용, HGET 한 번)
+     */
+    public int getTotalUnreadCount(String email) {
+        Object total = stringRedisTemplate.opsForHash().get(keyOf(email), TOTAL_FIELD);
+        if (total == null) {
+            total = load(email).get(TOTAL_FIELD);
+        }
+        return total != null ? Math.max(Integer.parseInt(total.toString()), 0) : 0;
+    }
+
+    /**
+     * 채팅방 목록에 읽지 않은 메시지 수 설정
+     */
+    public void applyUnreadCounts(String email, List<ChatRoom> chatRooms) {
+        if (chatRooms.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> counts = getUnreadCounts(email);
+        chatRooms.forEach(room -> room.setUnreadCount(counts.getOrDefault(room.getChatroomId(), 0)));
+    }
+
+    /** 카운터 조회 (없으면 DB 의 읽음 위치 기준으로 계산해 저장) **/
+    private Map<Object, Object> load(String email) {
+        String key = keyOf(email);
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(key);
+        if (!entries.isEmpty()) {
+            return entries;
+        }
+
+        // 빈 카운터를 먼저 만들어 계산하는 동안의 증가/초기화가 버려지지 않도록 함
+        Long lastMessageId = stringRedisTemplate.execute(INIT_SCRIPT,
+                Arrays.asList(key, ChatMessageWriteBehind.ID_KEY), String.valueOf(LOADING_TTL_SECONDS));
+        if (lastMessageId == null || lastMessageId < 0) {
+            return stringRedisTemplate.opsForHash().entries(key); // 다른 요청이 먼저 만듦
+        }
+
+        Map<Integer, Integer> counts;
+        try {
+            // 이후 발급된 메시지는 increment 로 반영되므로 두 번 세지 않도록 제외 (ID 카운터가 없으면 전체)
+            counts = countUnread(email, lastMessageId > 0 ? lastMessageId.intValue() : null);
+        } catch (RuntimeException e) {
+            stringRedisTemplate.delete(key); // 빈 카운터가 남지 않도록 삭제 (다음 조회 때 다시 계산)
+            throw e;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(Duration.ofHours(ttlHours).getSeconds()));
+        counts.forEach((chatroomId, count) -> {
+            args.add(String.valueOf(chatroomId));
+            args.add(String.valueOf(count));
+        });
+        Long merged = stringRedisTemplate.execute(MERGE_SCRIPT, Collections.singletonList(key), args.toArray());
+        if (merged == null || merged == 0) {
+            // 계산하는 동안 키가 만료됨: 계산한 값만 돌려주고 저장은 다음 조회에 맡김
+            Map<Object, Object> computed = new HashMap<>();
+            counts.forEach((chatroomId, count) -> computed.put(String.valueOf(chatroomId), String.valueOf(count)));
+            computed.put(TOTAL_FIELD, String.valueOf(counts.values().stream().mapToInt(Integer::intValue).sum()));
+            return computed;
+        }
+        return stringRedisTemplate.opsForHash().entries(key);
+    }
+
+    /** 채팅방별 카운터 field 인지 (합계, 계산 중 표시 제외) **/
+    private static boolean isChatRoomField(String field) {
+        return !TOTAL_FIELD.equals(field) && !LOADING_FIELD.equals(field) && !field.startsWith(RESET_FIELD_PREFIX);
+    }
+
+    /**
+     * 채팅방별 읽지 않은 메시지 수 계산 (DB 에 저장된 메시지 + 아직 저장되지 않은 write-behind 메시지)
+     * Stream 을 DB 보다 먼저 읽고 그 메시지들은 DB 집계에서 제외 (그 사이 저장된 메시지를 두 번 세지 않도록)
+     * @param maxMessageId 이 ID 이하의 메시지만 셈 (null 이면 전체)
+     */
+    private Map<Integer, Integer> countUnread(String email, Integer maxMessageId) {
+        List<ChatMessage> unsaved = chatMessageWriteBehind.findUnsavedMessages().stream()
+                .filter(message -> !email.equals(message.getSenderEmail()))
+                .filter(message -> maxMessageId == null || message.getMessageId() <= maxMessageId)
+                .collect(Collectors.toList());
+        List<Integer> unsavedIds = unsaved.stream().map(ChatMessage::getMessageId).collect(Collectors.toList());
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (ChatRoom room : chatMessageMapper.countUnreadMessagesByUser(email, maxMessageId, unsavedIds)) {
+            if (room.getUnreadCount() != null && room.getUnreadCount() > 0) {
+                counts.put(room.getChatroomId(), room.getUnreadCount());
+            }
+        }
+        if (unsaved.isEmpty()) {
+            return counts;
+        }
+
+        // 참여 중인 채팅방의 메시지 중 읽음 위치 이후만
+        Set<Integer> chatroomIds = unsaved.stream().map(ChatMessage::getChatroomId).collect(Collectors.toCollection(HashSet::new));
+        Map<Integer, Integer> readPositions = new HashMap<>();
+        for (ChatReadStatus status : chatMessageMapper.findReadPositionsByUser(email, chatroomIds)) {
+            readPositions.put(status.getChatroomId(), status.getLastReadMessageId() != null ? status.getLastReadMessageId() : 0);
+        }
+        for (ChatMessage message : unsaved) {
+            Integer lastReadMessageId = readPositions.get(message.getChatroomId());
+            if (lastReadMessageId != null && message.getMessageId() > lastReadMessageId) {
+                counts.merge(message.getChatroomId(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                // 카운터 반영 실패는 메시지 처리에 영향을 주지 않음 (만료 후 DB 값으로 보정)
+                log.warn("Failed to update unread counter: {}", e.getMessage());
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeAction.run();
+                }
+            });
+        } else {
+            safeAction.run();
+        }
+    }
+
+    private static String keyOf(String email) {
+        return KEY_PREFIX + email;
+    }
+}
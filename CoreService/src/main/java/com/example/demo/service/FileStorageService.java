@@ -1,15 +1,14 @@
 package com.example.demo.service;
 
+import com.example.demo.storage.MediaStore;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -20,8 +19,11 @@ import jakarta.annotation.PostConstruct;
 @Slf4j
 public class FileStorageService {
 
-    // 프로필 이미지 저장 경로를 리소스의 static 폴더 내 profile-images 디렉토리로 변경
-    private final String uploadDir = System.getProperty("user.dir") + "/src/main/resources/static/profile-images";
+    // 프로필 이미지 저장 위치 (MediaStore key 접두사)
+    private static final String PROFILE_IMAGE_DIR = "profile-images/";
+
+    private final MediaStore mediaStore;
+    private final MediaBlobService mediaBlobService;
     
     @Value("${file.default-profile-image}")
     private String defaultProfileImage;
@@ -33,18 +35,14 @@ public class FileStorageService {
         Arrays.asList(".jpg", ".jpeg", ".png", ".gif", ".bmp", ".webp")
     );
     
-    private Path fileStorageLocation;
+    public FileStorageService(MediaStore mediaStore, MediaBlobService mediaBlobService) {
+        this.mediaStore = mediaStore;
+        this.mediaBlobService = mediaBlobService;
+    }
 
     @PostConstruct
     public void init() {
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-            log.info("프로필 이미지 저장 디렉토리 생성 완료: {}", this.fileStorageLocation);
-            createDefaultProfileImageIfNotExists();
-        } catch (IOException ex) {
-            throw new RuntimeException("프로필 이미지 저장 디렉토리를 생성할 수 없습니다.", ex);
-        }
+        createDefaultProfileImageIfNotExists();
     }
 
     /**
@@ -79,11 +77,11 @@ public class FileStorageService {
             }
             
             String newFilename = userEmail.split("@")[0] + "_" + UUID.randomUUID() + fileExtension;
-            Path targetLocation = this.fileStorageLocation.resolve(newFilename);
+            String key = PROFILE_IMAGE_DIR + newFilename;
             
             // 파일 저장
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            log.info("프로필 이미지 저장 성공: {}", targetLocation);
+            store(file, key);
+            log.info("프로필 이미지 저장 성공: {}", key);
             
             return newFilename;
         } catch (IOException ex) {
@@ -93,9 +91,11 @@ public class FileStorageService {
     }
     
     /**
-     * 파일을 지정된 디렉토리에 저장하고 저장된 경로를 반환합니다. (일반 파일용)
+     * 파일을 내용(SHA-256) 기준으로 저장하고 웹 경로를 반환합니다. (일반 파일용)
+     * 같은 내용의 파일이 이미 있으면 새로 저장하지 않고 참조만 추가하며,
+     * 더 이상 사용하지 않을 때는 mediaBlobService.release 로 참조를 해제해야 합니다.
      */
-    public String storeFile(MultipartFile file, String directory, String originalFilename) {
+    public String storeFile(MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 log.warn("저장할 파일이 비어 있습니다.");
@@ -108,30 +108,12 @@ public class FileStorageService {
                 throw new IllegalArgumentException("파일 크기가 제한을 초과합니다. 최대 " + (maxFileSize / 1048576) + "MB까지 허용됩니다.");
             }
             
-            // 디렉토리 경로 설정
-            Path directoryPath = Paths.get(System.getProperty("user.dir") + "/src/main/resources/static/" + directory);
-            
-            // 디렉토리가 없으면 생성
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
-                log.info("파일 저장 디렉토리 생성: {}", directoryPath);
-            }
-            
-            // 파일명 충돌 방지를 위해 UUID 추가
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
-            }
-            
-            String newFilename = UUID.randomUUID() + fileExtension;
-            Path targetLocation = directoryPath.resolve(newFilename);
-            
-            // 파일 저장
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            log.info("파일 저장 성공: {}", targetLocation);
+            // 파일 저장 (같은 내용이면 기존 파일 재사용)
+            String path = mediaBlobService.store(file, file.getContentType());
+            log.info("파일 저장 성공: {}", path);
             
             // 저장된 파일 경로 반환 (웹에서 접근 가능한 경로)
-            return "/" + directory + "/" + newFilename;
+            return path;
         } catch (IOException ex) {
             log.error("파일 저장 중 오류 발생: {}", ex.getMessage());
             throw new RuntimeException("파일 저장 중 오류가 발생했습니다.", ex);
@@ -173,21 +155,14 @@ public class FileStorageService {
             
             // 게시판 ID별 저장 디렉토리 경로 설정
             String directory = "board-files/board_" + boardId + "/" + fileType;
-            Path directoryPath = Paths.get(System.getProperty("user.dir") + "/src/main/resources/static/" + directory);
-            
-            // 디렉토리가 없으면 생성
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
-                log.info("게시판 파일 저장 디렉토리 생성: {}", directoryPath);
-            }
             
             // 파일명 생성 (UUID + 원본 파일명)
             String newFilename = UUID.randomUUID() + "_" + originalFilename;
-            Path targetLocation = directoryPath.resolve(newFilename);
+            String key = directory + "/" + newFilename;
             
             // 파일 저장
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            log.info("게시판 파일 저장 성공: {}", targetLocation);
+            store(file, key);
+            log.info("게시판 파일 저장 성공: {}", key);
             
             // 웹에서 접근 가능한 경로 반환
             return "/" + directory + "/" + newFilename;
@@ -207,9 +182,7 @@ public class FileStorageService {
         }
         
         try {
-            // 전체 파일 경로 구성
-            Path fileToDelete = Paths.get(System.getProperty("user.dir") + "/src/main/resources/static" + filePath);
-            boolean deleted = Files.deleteIfExists(fileToDelete);
+            boolean deleted = mediaStore.delete(MediaStore.keyOf(filePath));
             if (deleted) {
                 log.info("게시판 파일 삭제 성공: {}", filePath);
             } else {
@@ -228,9 +201,9 @@ public class FileStorageService {
     public void deleteProfileImage(String filename) {
         if (filename != null && !filename.equals(defaultProfileImage)) {
             try {
-                Path file = this.fileStorageLocation.resolve(filename);
-                Files.deleteIfExists(file);
-                log.info("프로필 이미지 삭제 성공: {}", file);
+                String key = PROFILE_IMAGE_DIR + filename;
+                mediaStore.delete(key);
+                log.info("프로필 이미지 삭제 성공: {}", key);
             } catch (IOException ex) {
                 log.error("프로필 이미지 삭제 중 오류 발생: {}", ex.getMessage());
             }
@@ -238,36 +211,48 @@ public class FileStorageService {
     }
     
     /**
-     * 프로필 이미지 파일의 전체 경로를 가져옵니다.
+     * 프로필 이미지의 저장소 key 를 가져옵니다.
      */
-    public Path getProfileImagePath(String filename) {
+    public String getProfileImageKey(String filename) {
         if (filename == null || filename.isEmpty()) {
             filename = defaultProfileImage;
         }
-        return this.fileStorageLocation.resolve(filename);
+        return PROFILE_IMAGE_DIR + filename;
     }
     
     /**
      * 기본 프로필 이미지를 생성합니다.
      */
     public void createDefaultProfileImageIfNotExists() {
-        Path defaultImagePath = this.fileStorageLocation.resolve(defaultProfileImage);
-        if (!Files.exists(defaultImagePath)) {
-            try {
-                // 애플리케이션 리소스에서 기본 이미지 복사 시도
-                try {
-                    Path resourcePath = Paths.get(getClass().getResource("/static/images/default-profile.png").toURI());
-                    Files.copy(resourcePath, defaultImagePath, StandardCopyOption.REPLACE_EXISTING);
-                    log.info("기본 프로필 이미지 파일 생성 완료: {}", defaultImagePath);
-                } catch (Exception e) {
-                    log.error("기본 프로필 이미지 생성 실패: {}", e.getMessage());
-                    log.warn("기본 이미지를 찾을 수 없어 빈 파일을 생성합니다.");
-                    Files.createFile(defaultImagePath);
-                    log.info("빈 기본 프로필 이미지 파일 생성: {}", defaultImagePath);
+        String key = PROFILE_IMAGE_DIR + defaultProfileImage;
+        try {
+            if (mediaStore.exists(key)) {
+                return;
+            }
+            
+            // 애플리케이션 리소스에서 기본 이미지 복사 시도
+            ClassPathResource resource = new ClassPathResource("static/images/default-profile.png");
+            if (resource.exists()) {
+                try (InputStream inputStream = resource.getInputStream()) {
+                    mediaStore.put(key, inputStream, resource.contentLength(), "image/png");
                 }
-            } catch (IOException ioe) {
-                log.error("빈 기본 프로필 이미지 생성 실패: {}", ioe.getMessage());
+                log.info("기본 프로필 이미지 파일 생성 완료: {}", key);
+            } else {
+                log.warn("기본 이미지를 찾을 수 없어 빈 파일을 생성합니다.");
+                mediaStore.put(key, InputStream.nullInputStream(), 0, "image/png");
+                log.info("빈 기본 프로필 이미지 파일 생성: {}", key);
             }
+        } catch (IOException ioe) {
+            log.error("기본 프로필 이미지 생성 실패: {}", ioe.getMessage());
+        }
+    }
+
+    /**
+     * 업로드 파일을 스트림 그대로 저장소에 저장합니다.
+     */
+    private void store(MultipartFile file, String key) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            mediaStore.put(key, inputStream, file.getSize(), file.getContentType());
         }
     }
 
@@ -1,28 +1,48 @@
 package com.example.demo.service.Market;
 
-import lombok.RequiredArgsConstructor;
+import com.example.demo.service.MediaBlobService;
+import com.example.demo.util.ImageResponseUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ImageUploadService {
-    // **파일 저장 경로를 `/src/main/resources/static/uploads/`로 설정**
-    private static final String UPLOAD_DIR = System.getProperty("user.dir") + "/src/main/resources/static/uploads/";
+    private final ThreadPoolTaskExecutor imageUploadExecutor;
+    private final ThreadPoolTaskExecutor imageVariantExecutor;
+    private final ImageVariantService imageVariantService;
+    private final MediaBlobService mediaBlobService;
 
-    public ResponseEntity<Object> uploadProductImages(String email, Long productId, List<MultipartFile> files) {
-        List<String> uploadedPaths = new ArrayList<>();
+    public ImageUploadService(@Qualifier("imageUploadExecutor") ThreadPoolTaskExecutor imageUploadExecutor,
+                              @Qualifier("imageVariantExecutor") ThreadPoolTaskExecutor imageVariantExecutor,
+                              ImageVariantService imageVariantService,
+                              MediaBlobService mediaBlobService) {
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.imageVariantExecutor = imageVariantExecutor;
+        this.imageVariantService = imageVariantService;
+        this.mediaBlobService = mediaBlobService;
+    }
 
+    /**
+     * 상품 이미지 업로드
+     * - 파일마다 imageUploadExecutor 에서 병렬로 저장 (파일 내용은 힙에 올리지 않고 저장소로 스트림 전송)
+     * - 내용(SHA-256) 기준으로 저장하므로 이미 올라온 것과 같은 사진은 파일을 새로 만들지 않고 참조만 추가
+     * - 저장 후 thumb/medium 파생 이미지를 별도 실행기(imageVariantExecutor)에서 생성
+     * - 응답의 imagePaths/contentTypes 는 요청 순서대로 성공한 이미지 경로와 MIME 타입, failedFiles 는 파일별 실패 사유
+     */
+    public ResponseEntity<Object> uploadProductImages(String email, Long productId, List<MultipartFile> files) {
         if (files == null || files.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of(
                     "status", 400,
@@ -31,36 +51,74 @@ public class ImageUploadService {
             ));
         }
 
-        String productDir = UPLOAD_DIR + "product_" + email + "/product_" + productId + "/";
-        File uploadDir = new File(productDir);
-        if (!uploadDir.exists()) {
-            uploadDir.mkdirs();
+        // 파일별 저장 작업을 병렬로 시작
+        List<CompletableFuture<String>> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            uploads.add(CompletableFuture.supplyAsync(() -> saveFile(file), imageUploadExecutor));
         }
 
-        try {
-            for (MultipartFile file : files) {
-                String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-                Path filePath = Paths.get(productDir, fileName);
-                file.transferTo(filePath.toFile());
+        // 요청 순서대로 결과 수집
+        List<String> uploadedPaths = new ArrayList<>();
+        List<String> contentTypes = new ArrayList<>();
+        List<Map<String, Object>> failedFiles = new ArrayList<>();
+        for (int i = 0; i < uploads.size(); i++) {
+            try {
+                uploadedPaths.add(uploads.get(i).join());
+                contentTypes.add(resolveContentType(files.get(i)));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                String fileName = String.valueOf(files.get(i).getOriginalFilename());
+                log.warn("이미지 업로드 실패: productId={}, file={}, error={}", productId, fileName, cause.getMessage());
 
-                String imageUrl = "/uploads/product_" + email + "/product_" + productId + "/" + fileName;
-                
-                //  업로드된 이미지 경로를 리스트에 추가
-                uploadedPaths.add(imageUrl);
+                Map<String, Object> failure = new LinkedHashMap<>();
+                failure.put("index", i);
+                failure.put("fileName", fileName);
+                failure.put("message", String.valueOf(cause.getMessage()));
+                failedFiles.add(failure);
             }
-        } catch (IOException e) {
+        }
+
+        if (uploadedPaths.isEmpty()) {
             return ResponseEntity.internalServerError().body(Map.of(
                     "status", 500,
                     "error", "Internal Server Error",
-                    "message", "이미지 업로드 중 오류 발생: " + e.getMessage()
+                    "message", "이미지 업로드 중 오류 발생",
+                    "failedFiles", failedFiles
             ));
         }
 
         return ResponseEntity.ok(Map.of(
                 "status", 200,
-                "message", "이미지가 성공적으로 업로드되었습니다.",
-                "imagePaths", uploadedPaths
+                "message", failedFiles.isEmpty()
+                        ? "이미지가 성공적으로 업로드되었습니다."
+                        : "일부 이미지 업로드에 실패했습니다.",
+                "imagePaths", uploadedPaths,
+                "contentTypes", contentTypes,
+                "failedFiles", failedFiles
         ));
     }
-}
 
+    /** 업로드 파일의 MIME 타입 (클라이언트가 보낸 값이 이미지가 아니면 확장자로 결정) **/
+    private String resolveContentType(MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType != null && contentType.startsWith("image/")) {
+            return contentType;
+        }
+        return ImageResponseUtils.contentTypeOf(String.valueOf(file.getOriginalFilename()));
+    }
+
+    /** 파일 한 개 저장 후 이미지 URL 반환 **/
+    private String saveFile(MultipartFile file) {
+        String imagePath;
+        try {
+            imagePath = mediaBlobService.store(file, resolveContentType(file));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+
+        // 목록/상세용 파생 이미지는 응답을 기다리지 않고 미리 생성 (실패하거나 실행기가 포화되어 버려지면 첫 요청 때 생성)
+        String key = imagePath.substring(1);
+        imageVariantExecutor.execute(() -> imageVariantService.generateAll(key));
+        return imagePath;
+    }
+}
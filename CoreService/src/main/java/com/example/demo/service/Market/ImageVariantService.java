@@ -0,0 +1,247 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.storage.MediaStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품 이미지 크기별 파생 이미지(variant) 생성
+ * - thumb(목록용), medium(상세용) 이미지를 원본과 같은 위치에 "{원본 key}_{size}.jpg|png" 로 저장
+ * - 업로드 시 미리 생성하고, 없으면 첫 요청 때 생성 (full 은 원본 그대로 사용)
+ * - 원본이 충분히 작거나, 읽을 수 없는 형식이거나, 픽셀 수가 너무 크면 "{원본 key}_{size}.original" 표시를 저장해
+ *   이후 요청은 원본을 다시 읽지 않고 바로 원본 사용
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    public static final String SIZE_THUMB = "thumb";
+    public static final String SIZE_MEDIUM = "medium";
+    public static final String SIZE_FULL = "full";
+
+    // 크기별 최대 변 길이 (px)
+    private static final Map<String, Integer> MAX_DIMENSIONS = Map.of(
+            SIZE_THUMB, 320,
+            SIZE_MEDIUM, 960
+    );
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // 원본을 그대로 사용하라는 표시의 확장자
+    private static final String ORIGINAL_MARKER = "original";
+
+    // 같은 파생 이미지를 여러 요청이 동시에 생성하지 않도록 원본별 잠금
+    private final Map<String, Object> generationLocks = new ConcurrentHashMap<>();
+
+    private final MediaStore mediaStore;
+
+    // 디코딩을 허용하는 최대 픽셀 수 (헤더의 가로x세로로 먼저 확인, 압축 폭탄 방지)
+    @Value("${market.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImageVariantService(MediaStore mediaStore) {
+        this.mediaStore = mediaStore;
+    }
+
+    /**
+     * 지원하는 크기인지 확인 (null 은 원본)
+     */
+    public boolean isSupportedSize(String size) {
+        return size == null || SIZE_FULL.equals(size) || MAX_DIMENSIONS.containsKey(size);
+    }
+
+    /**
+     * 요청한 크기의 이미지 key 반환 (없으면 생성)
+     * 원본이 요청 크기보다 작거나 디코딩할 수 없는 형식이면 원본 key 반환
+     */
+    public String resolve(String original, String size) {
+        if (size == null || SIZE_FULL.equals(size) || !MAX_DIMENSIONS.containsKey(size)) {
+            return original;
+        }
+
+        String existing = findVariant(original, size);
+        if (existing != null) {
+            return existing;
+        }
+
+        Object lock = generationLocks.computeIfAbsent(original, key -> new Object());
+        try {
+            synchronized (lock) {
+                existing = findVariant(original, size);
+                if (existing != null) {
+                    return existing;
+                }
+                return generate(original, size);
+            }
+        } finally {
+            generationLocks.remove(original, lock);
+        }
+    }
+
+    /**
+     * 업로드 직후 모든 파생 이미지 미리 생성
+     */
+    public void generateAll(String original) {
+        for (String size : MAX_DIMENSIONS.keySet()) {
+            resolve(original, size);
+        }
+    }
+
+    /**
+     * 원본 삭제 시 모든 파생 이미지 삭제
+     */
+    public void deleteAll(String original) throws IOException {
+        for (String size : MAX_DIMENSIONS.keySet()) {
+            for (String extension : new String[] {"jpg", "png", ORIGINAL_MARKER}) {
+                mediaStore.delete(variantKey(original, size, extension));
+            }
+        }
+    }
+
+    /** 저장된 파생 이미지 key (원본 사용 표시가 있으면 원본 key, 아직 없으면 null) **/
+    private String findVariant(String original, String size) {
+        for (String extension : new String[] {"jpg", "png", ORIGINAL_MARKER}) {
+            String candidate = variantKey(original, size, extension);
+            try {
+                if (mediaStore.exists(candidate)) {
+                    return ORIGINAL_MARKER.equals(extension) ? original : candidate;
+                }
+            } catch (IOException e) {
+                log.warn("파생 이미지 조회 실패: key={}, error={}", candidate, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 파생 이미지 생성 후 key 반환
+     * 원본을 그대로 써야 하면 표시를 저장하고 원본 key 반환 (저장소 오류 등 일시적인 실패는 표시하지 않음)
+     */
+    private String generate(String original, String size) {
+        int maxDimension = MAX_DIMENSIONS.get(size);
+        try {
+            BufferedImage source;
+            try (InputStream inputStream = mediaStore.get(original);
+                 ImageInputStream imageInput = ImageIO.createImageInputStream(inputStream)) {
+                Iterator<ImageReader> readers = imageInput != null ? ImageIO.getImageReaders(imageInput) : null;
+                if (readers == null || !readers.hasNext()) {
+                    return useOriginal(original, size, "지원하지 않는 형식");
+                }
+
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(imageInput, true, true);
+                    // 픽셀 데이터를 읽기 전에 헤더의 크기로 확인
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    if ((long) width * height > maxPixels) {
+                        return useOriginal(original, size, "픽셀 수 초과 " + width + "x" + height);
+                    }
+                    if (Math.max(width, height) <= maxDimension) {
+                        return useOriginal(original, size, "원본이 충분히 작음");
+                    }
+
+                    // 목표 크기의 2배 이상은 건너뛰며 읽어 디코딩 메모리를 줄임 (나머지는 보간으로 축소)
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    source = reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+
+            int width = source.getWidth();
+            int height = source.getHeight();
+            double scale = (double) maxDimension / Math.max(width, height);
+            int targetWidth = Math.max(1, (int) Math.round(width * scale));
+            int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+            // 투명도가 있으면 PNG, 없으면 JPEG 로 저장
+            boolean hasAlpha = source.getColorModel().hasAlpha();
+            BufferedImage resized = new BufferedImage(targetWidth, targetHeight,
+                    hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = resized.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            // 파생 이미지는 크기가 작으므로 메모리에서 인코딩한 뒤 저장
+            String extension = hasAlpha ? "png" : "jpg";
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            if (hasAlpha) {
+                ImageIO.write(resized, "png", encoded);
+            } else {
+                writeJpeg(resized, encoded);
+            }
+
+            String target = variantKey(original, size, extension);
+            mediaStore.put(target, new ByteArrayInputStream(encoded.toByteArray()), encoded.size(),
+                    hasAlpha ? "image/png" : "image/jpeg");
+
+            log.debug("파생 이미지 생성: {} ({}x{})", target, targetWidth, targetHeight);
+            return target;
+        } catch (IOException e) {
+            log.warn("파생 이미지 생성 실패: key={}, size={}, error={}", original, size, e.getMessage());
+            return original;
+        }
+    }
+
+    /** 원본 사용 표시 저장 후 원본 key 반환 **/
+    private String useOriginal(String original, String size, String reason) {
+        log.debug("파생 이미지 대신 원본 사용: key={}, size={}, reason={}", original, size, reason);
+        try {
+            mediaStore.put(variantKey(original, size, ORIGINAL_MARKER), new ByteArrayInputStream(new byte[0]), 0,
+                    "application/octet-stream");
+        } catch (IOException e) {
+            log.warn("원본 사용 표시 저장 실패: key={}, error={}", original, e.getMessage());
+        }
+        return original;
+    }
+
+    private void writeJpeg(BufferedImage image, ByteArrayOutputStream target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("JPEG writer 를 찾을 수 없습니다.");
+        }
+
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private String variantKey(String original, String size, String extension) {
+        return original + "_" + size + "." + extension;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.mapper.Market.ProductMapper;
+import com.example.demo.model.Market.Product;
+import com.example.demo.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모집 중(is_visible = TRUE)인 대면 상품의 위치를 격자(grid) 단위로 메모리에 보관하는 인덱스
+ * - 상품 등록 / 모집 마감 시 트랜잭션 커밋 후 갱신되고, 다른 노드의 변경을 반영하기 위해 주기적으로 전체 재적재
+ * - 주변 상품 조회는 DB 대신 이 인덱스에서 거리순 상품 ID 목록을 구한 뒤 한 번의 쿼리로 상세 정보를 가져옴
+ */
+@Slf4j
+@Component
+public class NearbyProductIndex {
+
+    private final ProductMapper productMapper;
+
+    // 격자 한 칸의 크기 (위도/경도 단위, 0.05도 ≒ 5.5km)
+    @Value("${market.nearby.index.cell-size:0.05}")
+    private double cellSize;
+
+    // 전체 재적재 주기 (분)
+    @Value("${market.nearby.index.refresh-minutes:5}")
+    private long refreshMinutes;
+
+    // 상품 ID → 인덱스 항목
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // 격자 키 → 해당 칸에 속한 상품 ID 목록
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile boolean ready = false;
+
+    public NearbyProductIndex(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Initializing nearby product index (cellSize={}, refresh={}min)", cellSize, refreshMinutes);
+        scheduler.scheduleWithFixedDelay(this::reload, 0, refreshMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Shutting down nearby product index");
+        scheduler.shutdown();
+    }
+
+    /**
+     * DB의 모집 중인 대면 상품으로 인덱스를 다시 구성
+     */
+    public void reload() {
+        try {
+            long reloadStartedAt = System.nanoTime();
+            List<Product> products = productMapper.findVisibleFaceToFaceProductLocations();
+            Set<Long> loadedIds = ConcurrentHashMap.newKeySet();
+
+            for (Product product : products) {
+                addNow(product);
+                loadedIds.add(product.getId());
+            }
+
+            // 그 사이 마감되었거나 삭제된 상품 제거 (재적재 도중 새로 등록된 상품은 유지)
+            for (Entry entry : new ArrayList<>(entries.values())) {
+                if (!loadedIds.contains(entry.id) && entry.indexedAt < reloadStartedAt) {
+                    removeNow(entry.id);
+                }
+            }
+
+            ready = true;
+            log.debug("Nearby product index reloaded: {} products", entries.size());
+        } catch (Exception e) {
+            log.error("Failed to reload nearby product index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 첫 적재가 끝나 조회에 사용할 수 있는지 여부
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 상품을 인덱스에 추가 (모집 중인 대면 상품만 대상, 트랜잭션 안이면 커밋 후 반영)
+     */
+    public void add(Product product) {
+        runAfterCommit(() -> addNow(product));
+    }
+
+    /**
+     * 상품을 인덱스에서 제거 (모집 마감 시, 트랜잭션 안이면 커밋 후 반영)
+     */
+    public void remove(Long productId) {
+        runAfterCommit(() -> removeNow(productId));
+    }
+
+    private void addNow(Product product) {
+        if (product == null || product.getId() == null
+                || product.getLatitude() == null || product.getLongitude() == null
+                || !"대면".equals(product.getTransactionType()) || !product.isVisible()) {
+            return;
+        }
+
+        Entry entry = new Entry(product.getId(), product.getLatitude(), product.getLongitude(),
+                cellKey(product.getLatitude(), product.getLongitude()), System.nanoTime());
+
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null && previous.cell != entry.cell) {
+            removeFromCell(previous);
+        }
+        cells.computeIfAbsent(entry.cell, key -> ConcurrentHashMap.newKeySet()).add(entry.id);
+    }
+
+    private void removeNow(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        Entry entry = entries.remove(productId);
+        if (entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    /**
+     * 중심 좌표로부터 반경(km) 내 상품 ID를 거리순으로 조회
+     * @param limit 최대 개수 (null 이면 전체)
+     */
+    public List<Long> findNearbyProductIds(double latitude, double longitude, double distanceKm, Integer limit) {
+        List<Hit> hits = search(latitude, longitude, distanceKm);
+
+        int end = limit != null ? Math.min(limit, hits.size()) : hits.size();
+        List<Long> productIds = new ArrayList<>(end);
+        for (int i = 0; i < end; i++) {
+            productIds.add(hits.get(i).productId);
+        }
+        return productIds;
+    }
+
+    /**
+     * 중심 좌표로부터 반경(km) 내 상품 ID를 거리순으로 페이지 단위 조회
+     */
+    public List<Long> findNearbyProductIds(double latitude, double longitude, double distanceKm, int offset, int size) {
+        List<Hit> hits = search(latitude, longitude, distanceKm);
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = offset; i < hits.size() && i < offset + size; i++) {
+            productIds.add(hits.get(i).productId);
+        }
+        return productIds;
+    }
+
+    /**
+     * 중심 좌표로부터 반경(km) 내 상품 수
+     */
+    public int countNearbyProducts(double latitude, double longitude, double distanceKm) {
+        return search(latitude, longitude, distanceKm).size();
+    }
+
+    /**
+     * 중심 좌표로부터 상품까지의 거리(km) (인덱스에 없는 상품은 null)
+     */
+    public Double distanceKm(Long productId, double latitude, double longitude) {
+        Entry entry = productId != null ? entries.get(productId) : null;
+        if (entry == null) {
+            return null;
+        }
+        return GeoUtils.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+    }
+
+    private List<Hit> search(double latitude, double longitude, double distanceKm) {
+        double[] box = GeoUtils.boundingBox(latitude, longitude, distanceKm);
+        long minLatCell = cellIndex(box[0]);
+        long maxLatCell = cellIndex(box[1]);
+        long minLngCell = cellIndex(box[2]);
+        long maxLngCell = cellIndex(box[3]);
+
+        List<Hit> hits = new ArrayList<>();
+        for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (long lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                Set<Long> productIds = cells.get(toCellKey(latCell, lngCell));
+                if (productIds == null) {
+                    continue;
+                }
+                for (Long productId : productIds) {
+                    Entry entry = entries.get(productId);
+                    if (entry == null) {
+                        continue;
+                    }
+                    double distance = GeoUtils.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance <= distanceKm) {
+                        hits.add(new Hit(entry.id, distance));
+                    }
+                }
+            }
+        }
+
+        // 거리순, 같은 거리면 최신 상품(ID 큰 순) 우선
+        hits.sort(Comparator.comparingDouble((Hit hit) -> hit.distance)
+                .thenComparing(hit -> hit.productId, Comparator.reverseOrder()));
+        return hits;
+    }
+
+    // 롤백된 변경이 인덱스에 남지 않도록 커밋 후 실행 (트랜잭션 밖이면 즉시 실행)
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void removeFromCell(Entry entry) {
+        Set<Long> productIds = cells.get(entry.cell);
+        if (productIds != null) {
+            productIds.remove(entry.id);
+        }
+    }
+
+    private long cellIndex(double degree) {
+        return (long) Math.floor(degree / cellSize);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return toCellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long toCellKey(long latCell, long lngCell) {
+        return (latCell << 32) | (lngCell & 0xffffffffL);
+    }
+
+    /** 인덱스 항목 (상품 ID, 위치) **/
+    private static final class Entry {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+        private final long indexedAt;
+
+        private Entry(long id, double latitude, double longitude, long cell, long indexedAt) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+            this.indexedAt = indexedAt;
+        }
+    }
+
+    /** 검색 결과 (상품 ID, 거리) **/
+    private static final class Hit {
+        private final long productId;
+        private final double distance;
+
+        private Hit(long productId, double distance) {
+            this.productId = productId;
+            this.distance = distance;
+        }
+    }
+}
@@ -6,10 +6,13 @@ import com.example.demo.mapper.Market.TransactionsMapper;
 import com.example.demo.mapper.Market.PaymentsMapper;
 import com.example.demo.util.BaseResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -18,30 +21,47 @@ public class PaymentsService {
 
     private final PaymentsMapper paymentsMapper;
     private final TransactionsMapper transactionsMapper;
-    private final TransactionsService transactionsService;
 
     /**
      * 결제 요청 (자동 상태 업데이트 포함)
+     * - 결제 INSERT 1회 + 거래 UPDATE 1회 (누적 결제 금액과 완료 여부를 같은 UPDATE 에서 갱신)
+     * - 멱등 키가 같은 재시도 요청은 새로 반영하지 않고 처음 등록된 결제를 반환
      **/
     @Transactional
     public ResponseEntity<BaseResponse<PaymentsResponse>> createPayment(PaymentsRequest request) {
-        // 결제 요청을 DB에 저장
-        paymentsMapper.insertPayment(request);
-
-        // 결제 상태 자동 업데이트
-        updatePaymentStatus(request.getTransactionId());
-
+        if (request.getTransactionId() == null || request.getAmount() <= 0) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("결제 금액이 올바르지 않습니다."));
+        }
 
-        // 거래 상태도 자동 업데이트
-        transactionsService.updateTransactionStatusOnPayment(request.getTransactionId());
+        // 결제 요청을 DB에 저장 (같은 멱등 키로 이미 등록되었으면 처음 등록된 결제 반환)
+        // INSERT IGNORE 는 FK 위반/값 잘림까지 경고로 바꾸므로 멱등 키 중복만 따로 처리
+        try {
+            paymentsMapper.insertPayment(request);
+        } catch (DuplicateKeyException e) {
+            PaymentsResponse existing = request.getIdempotencyKey() != null
+                    ? paymentsMapper.findPaymentByIdempotencyKey(request.getTransactionId(), request.getIdempotencyKey())
+                    : null;
+            if (existing == null) {
+                return ResponseEntity.badRequest().body(BaseResponse.error("결제 정보를 찾을 수 없습니다."));
+            }
+            return ResponseEntity.ok(new BaseResponse<>(existing, "이미 처리된 결제입니다."));
+        }
 
-        // 결제 내역 조회 후 반환 (결과가 없는 경우 예외 방지)
-        List<PaymentsResponse> payments = paymentsMapper.findPaymentsByTransaction(request.getTransactionId());
-        if (payments.isEmpty()) {
-            return ResponseEntity.badRequest().body(new BaseResponse<>(null, "결제 정보를 찾을 수 없습니다."));
+        // 누적 결제 금액 반영, 거래 금액 이상이면 결제/거래 상태를 "완료"로 변경
+        if (transactionsMapper.addPaidAmount(request.getTransactionId(), request.getAmount()) == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly(); // 등록한 결제 취소
+            return ResponseEntity.badRequest().body(BaseResponse.error("결제할 수 없는 거래입니다."));
         }
 
-        return ResponseEntity.ok(new BaseResponse<>(payments.get(0), "결제가 성공적으로 처리되었습니다."));
+        PaymentsResponse payment = PaymentsResponse.builder()
+                .id(request.getId())
+                .transactionId(request.getTransactionId())
+                .amount(request.getAmount())
+                .paymentMethod(request.getPaymentMethod())
+                .idempotencyKey(request.getIdempotencyKey())
+                .createdAt(LocalDateTime.now())
+                .build();
+        return ResponseEntity.ok(new BaseResponse<>(payment, "결제가 성공적으로 처리되었습니다."));
     }
 
     /**
@@ -51,17 +71,4 @@ public class PaymentsService {
         List<PaymentsResponse> payments = paymentsMapper.findPaymentsByTransaction(transactionId);
         return ResponseEntity.ok(new BaseResponse<>(payments));
     }
-
-    /**
-     * 결제 완료 여부 확인 후 거래 상태 자동 변경
-     **/
-    // 결제 상태 자동 업데이트 메서드
-    private void updatePaymentStatus(Long transactionId) {
-        int totalPaid = paymentsMapper.getTotalPaidByTransaction(transactionId);
-        int transactionPrice = transactionsMapper.getTransactionPrice(transactionId);
-
-        if (totalPaid >= transactionPrice) {
-            transactionsMapper.updateTransactionStatusOnPayment(transactionId); // 여기서 "완료"로 업데이트됨!
-        }
-    }
 }
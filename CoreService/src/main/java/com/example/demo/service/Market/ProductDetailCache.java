@@ -0,0 +1,157 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.mapper.Market.ProductMapper;
+import com.example.demo.model.Market.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 상품 상세(productMapper.findById) 2단 캐시
+ * - 1차: 노드 로컬 Caffeine 캐시 (짧은 TTL), 2차: Redis (상품 ID 키)
+ * - 캐시에는 조회자와 무관한 상품 원본을 저장하고, 마감된 상품의 조회 권한(등록자/승인된 사용자)은 조회 시점에 확인
+ * - ProductChangedEvent 커밋 후 로컬/Redis 항목을 지우고, Redis 채널로 다른 노드의 로컬 캐시도 무효화
+ */
+@Slf4j
+@Component
+public class ProductDetailCache implements MessageListener {
+
+    private static final String KEY_PREFIX = "product:detail:";
+
+    private final ProductMapper productMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChannelTopic productCacheChannelTopic;
+    private final Cache<Long, Product> localCache;
+    private final Duration redisTtl;
+
+    public ProductDetailCache(ProductMapper productMapper,
+                              StringRedisTemplate stringRedisTemplate,
+                              ObjectMapper objectMapper,
+                              @Qualifier("productCacheChannelTopic") ChannelTopic productCacheChannelTopic,
+                              @Value("${market.product-cache.local-ttl-seconds:30}") long localTtlSeconds,
+                              @Value("${market.product-cache.local-max-size:10000}") long localMaxSize,
+                              @Value("${market.product-cache.redis-ttl-minutes:10}") long redisTtlMinutes) {
+        this.productMapper = productMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.productCacheChannelTopic = productCacheChannelTopic;
+        this.localCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .maximumSize(localMaxSize)
+                .build();
+        this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+    }
+
+    /**
+     * productMapper.findById 와 동일한 조회 규칙으로 상품 조회
+     * (모집 중인 상품은 누구나, 마감된 상품은 등록자와 승인된 사용자만 조회 가능)
+     * 반환된 객체는 캐시와 공유되므로 수정하지 않아야 함
+     */
+    public Product findById(Long productId, String email) {
+        Product product = getProduct(productId);
+        if (product == null) {
+            return null;
+        }
+
+        if (product.isVisible() || (email != null && email.equals(product.getEmail()))) {
+            return product;
+        }
+
+        // 마감된 상품은 승인된 사용자만 조회 가능 (조회자마다 다르므로 캐시하지 않음)
+        if (email != null && productMapper.existsApprovedRequest(productId, email)) {
+            return product;
+        }
+        return null;
+    }
+
+    /**
+     * 상품 변경 트랜잭션 커밋 후 캐시 무효화 (트랜잭션 밖에서 발행된 경우 즉시 처리)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+
+    /**
+     * 로컬/Redis 캐시에서 상품을 제거하고 다른 노드에 무효화 메시지 발행
+     */
+    public void evict(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        localCache.invalidate(productId);
+        try {
+            stringRedisTemplate.delete(KEY_PREFIX + productId);
+            stringRedisTemplate.convertAndSend(productCacheChannelTopic.getTopic(), String.valueOf(productId));
+        } catch (Exception e) {
+            log.warn("상품 캐시 무효화 중 Redis 오류: productId={}, error={}", productId, e.getMessage());
+        }
+    }
+
+    /**
+     * 다른 노드에서 발행한 무효화 메시지 수신 → 로컬 캐시만 제거
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            // StringRedisTemplate 로 발행된 메시지는 직렬화된 문자열 그대로 전달됨
+            String body = new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", "").trim();
+            localCache.invalidate(Long.parseLong(body));
+        } catch (Exception e) {
+            log.warn("상품 캐시 무효화 메시지 처리 실패: {}", e.getMessage());
+        }
+    }
+
+    private Product getProduct(Long productId) {
+        Product cached = localCache.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Product product = readFromRedis(productId);
+        if (product == null) {
+            product = productMapper.findDetailById(productId);
+            if (product == null) {
+                return null;
+            }
+            writeToRedis(product);
+        }
+
+        localCache.put(productId, product);
+        return product;
+    }
+
+    private Product readFromRedis(Long productId) {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(KEY_PREFIX + productId);
+            return json != null ? objectMapper.readValue(json, Product.class) : null;
+        } catch (Exception e) {
+            log.warn("Redis 상품 캐시 조회 실패: productId={}, error={}", productId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToRedis(Product product) {
+        try {
+            stringRedisTemplate.opsForValue().set(
+                    KEY_PREFIX + product.getId(), objectMapper.writeValueAsString(product), redisTtl);
+        } catch (Exception e) {
+            log.warn("Redis 상품 캐시 저장 실패: productId={}, error={}", product.getId(), e.getMessage());
+        }
+    }
+}
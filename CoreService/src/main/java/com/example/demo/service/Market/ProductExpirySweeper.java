@@ -0,0 +1,105 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.mapper.Market.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모집 기간(end_date)이 지난 상품을 주기적으로 모집 마감하는 스케줄러
+ * - 요청/승인 시에만 마감되던 상품이 목록/주변 조회에 계속 남지 않도록 is_visible 을 FALSE 로 변경
+ * - (is_visible, end_date) 인덱스로 만료 상품만 찾아 batch 단위 트랜잭션으로 마감 (긴 잠금 방지)
+ * - 마감된 상품은 커밋 후 상품 캐시를 무효화하고 주변 상품 인덱스에서 제거
+ */
+@Slf4j
+@Component
+public class ProductExpirySweeper {
+
+    private final ProductMapper productMapper;
+    private final NearbyProductIndex nearbyProductIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    // 실행 주기 (초)
+    @Value("${market.expiry.sweep-interval-seconds:60}")
+    private long sweepIntervalSeconds;
+
+    // 한 번의 UPDATE 로 마감할 최대 상품 수
+    @Value("${market.expiry.batch-size:500}")
+    private int batchSize;
+
+    // 한 번 실행할 때 처리할 최대 batch 수 (남은 상품은 다음 실행에서 처리)
+    @Value("${market.expiry.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public ProductExpirySweeper(ProductMapper productMapper,
+                                NearbyProductIndex nearbyProductIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.productMapper = productMapper;
+        this.nearbyProductIndex = nearbyProductIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Initializing product expiry sweeper (interval={}s, batchSize={})", sweepIntervalSeconds, batchSize);
+        scheduler.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Shutting down product expiry sweeper");
+        scheduler.shutdown();
+    }
+
+    /**
+     * 만료된 상품 모집 마감 (batch 가 가득 차지 않을 때까지 반복)
+     */
+    public void sweep() {
+        try {
+            int closedCount = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer closed = transactionTemplate.execute(status -> closeBatch());
+                closedCount += closed != null ? closed : 0;
+                if (closed == null || closed < batchSize) {
+                    break;
+                }
+            }
+
+            if (closedCount > 0) {
+                log.info("Closed {} expired products", closedCount);
+            }
+        } catch (Exception e) {
+            log.error("Failed to close expired products: {}", e.getMessage());
+        }
+    }
+
+    private int closeBatch() {
+        List<Long> productIds = productMapper.findExpiredVisibleProductIds(batchSize);
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+
+        int closed = productMapper.closeExpiredProducts(productIds, batchSize);
+        for (Long productId : productIds) {
+            nearbyProductIndex.remove(productId); // 커밋 후 주변 상품 인덱스에서 제거
+            eventPublisher.publishEvent(new ProductChangedEvent(productId)); // 커밋 후 상품 캐시 무효화
+        }
+        return closed;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.dto.Market.ProductResponse;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.mapper.Market.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 홈 피드 랭킹
+ * - 모집 중인 상품의 점수(최신성 + 등록자 도파민 + 남은 모집 인원 비율)를 주기적으로 계산해
+ *   카테고리별 Redis Sorted Set("market:feed:{categoryId}", 전체는 "market:feed:all")에 저장
+ * - 피드 조회는 ZREVRANGE 한 번으로 상품 ID 를 구한 뒤 상세 정보를 한 번에 조회
+ * - 조회자 위치가 있으면 상위 후보 범위 안에서 거리 점수를 더해 다시 정렬 (거리는 조회자마다 달라 미리 계산할 수 없음)
+ * - 상품 변경 이벤트 커밋 후 해당 상품만 바로 추가/제거 (마감된 상품이 다음 재계산까지 남지 않도록)
+ * - 서버 시작 직후 아직 한 번도 계산되지 않았으면 최신순 DB 조회로 대신함 (요청 스레드에서 재계산하지 않음)
+ */
+@Slf4j
+@Component
+public class ProductFeedRanker {
+
+    private static final String KEY_PREFIX = "market:feed:";
+    private static final String ALL_KEY = KEY_PREFIX + "all";
+    private static final String KEYS_KEY = KEY_PREFIX + "keys"; // 현재 사용 중인 피드 key 목록
+    private static final int WRITE_CHUNK_SIZE = 1000;
+
+    private final ProductMapper productMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearbyProductIndex nearbyProductIndex;
+
+    // 점수 재계산 주기 (분)
+    @Value("${market.feed.refresh-minutes:5}")
+    private long refreshMinutes;
+
+    // 최신성 점수가 절반이 되는 시간 (시간)
+    @Value("${market.feed.recency-half-life-hours:48}")
+    private double recencyHalfLifeHours;
+
+    @Value("${market.feed.weight.recency:0.5}")
+    private double recencyWeight;
+
+    @Value("${market.feed.weight.dopamine:0.2}")
+    private double dopamineWeight;
+
+    @Value("${market.feed.weight.capacity:0.3}")
+    private double capacityWeight;
+
+    @Value("${market.feed.weight.distance:0.3}")
+    private double distanceWeight;
+
+    // 거리 점수가 절반이 되는 거리 (km)
+    @Value("${market.feed.distance-scale-km:5}")
+    private double distanceScaleKm;
+
+    // 거리 반영 시 다시 정렬할 후보 수 (모든 페이지가 같은 후보 범위를 정렬해야 페이지 간 중복/누락이 없음)
+    @Value("${market.feed.max-candidates:500}")
+    private int maxCandidates;
+
+    // 피드가 계산되었는지 (이 노드 또는 다른 노드에서)
+    private volatile boolean built;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public ProductFeedRanker(ProductMapper productMapper,
+                             StringRedisTemplate stringRedisTemplate,
+                             NearbyProductIndex nearbyProductIndex) {
+        this.productMapper = productMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearbyProductIndex = nearbyProductIndex;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Initializing market feed ranker (refresh={}min)", refreshMinutes);
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, refreshMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info("Shutting down market feed ranker");
+        scheduler.shutdown();
+    }
+
+    /**
+     * 모집 중인 상품 점수를 다시 계산해 피드 Sorted Set 교체
+     * (임시 key 에 쓴 뒤 RENAME 으로 바꿔 조회 중에 빈 피드가 보이지 않도록 함)
+     */
+    public synchronized void rebuild() {
+        try {
+            List<ProductResponse> candidates = productMapper.findFeedCandidates();
+            LocalDateTime now = LocalDateTime.now();
+
+            Map<String, Set<TypedTuple<String>>> feeds = new HashMap<>();
+            feeds.put(ALL_KEY, new HashSet<>());
+            for (ProductResponse product : candidates) {
+                TypedTuple<String> tuple = new DefaultTypedTuple<>(String.valueOf(product.getId()), baseScore(product, now));
+                feeds.get(ALL_KEY).add(tuple);
+                if (product.getCategoryId() != null) {
+                    feeds.computeIfAbsent(keyOf(product.getCategoryId()), key -> new HashSet<>()).add(tuple);
+                }
+            }
+
+            for (Map.Entry<String, Set<TypedTuple<String>>> feed : feeds.entrySet()) {
+                replace(feed.getKey(), feed.getValue());
+            }
+
+            // 모집 중인 상품이 없어진 카테고리의 피드 삭제
+            Set<String> previousKeys = stringRedisTemplate.opsForSet().members(KEYS_KEY);
+            if (previousKeys != null) {
+                for (String key : previousKeys) {
+                    if (!feeds.containsKey(key)) {
+                        stringRedisTemplate.delete(key);
+                        stringRedisTemplate.opsForSet().remove(KEYS_KEY, key);
+                    }
+                }
+            }
+            stringRedisTemplate.opsForSet().add(KEYS_KEY, feeds.keySet().toArray(new String[0]));
+
+            built = true;
+            log.debug("Market feed rebuilt: {} products, {} feeds", candidates.size(), feeds.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild market feed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 피드 순서대로 상품 ID 페이지 조회
+     * @param categoryId 카테고리 (null 이면 전체)
+     * @param latitude 조회자 위도 (null 이면 거리 미반영)
+     * @param longitude 조회자 경도
+     */
+    public List<Long> findRankedProductIds(Long categoryId, Double latitude, Double longitude, int offset, int size) {
+        if (!isBuilt()) {
+            return productMapper.findLatestVisibleProductIds(categoryId, offset, size);
+        }
+
+        String key = categoryId != null ? keyOf(categoryId) : ALL_KEY;
+        if (latitude == null || longitude == null || distanceWeight <= 0 || offset >= maxCandidates) {
+            Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(key, offset, offset + size - 1L);
+            return toIds(members);
+        }
+
+        // 상위 후보(페이지와 관계없이 항상 maxCandidates 개)를 가져와 거리 점수를 더한 뒤 다시 정렬
+        Set<TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().reverseRangeWithScores(key, 0, maxCandidates - 1L);
+        if (tuples == null || tuples.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Scored> scored = new ArrayList<>(tuples.size());
+        for (TypedTuple<String> tuple : tuples) {
+            Long productId = Long.valueOf(tuple.getValue());
+            double score = tuple.getScore() != null ? tuple.getScore() : 0;
+            Double distance = nearbyProductIndex.distanceKm(productId, latitude, longitude);
+            if (distance != null) {
+                score += distanceWeight / (1 + distance / distanceScaleKm);
+            }
+            scored.add(new Scored(productId, score));
+        }
+        scored.sort(Comparator.comparingDouble((Scored item) -> item.score).reversed());
+
+        List<Long> productIds = new ArrayList<>(size);
+        for (int i = offset; i < scored.size() && i < offset + size; i++) {
+            productIds.add(scored.get(i).productId);
+        }
+
+        // 페이지가 후보 범위를 넘어가면 나머지는 기본 점수 순서대로 이어 붙임
+        if (productIds.size() < size && scored.size() >= maxCandidates) {
+            int remaining = size - productIds.size();
+            productIds.addAll(toIds(stringRedisTemplate.opsForZSet()
+                    .reverseRange(key, maxCandidates, maxCandidates + remaining - 1L)));
+        }
+        return productIds;
+    }
+
+    /**
+     * 피드에 포함된 상품 수
+     */
+    public long countRankedProducts(Long categoryId) {
+        if (!isBuilt()) {
+            return productMapper.countVisibleProducts(categoryId);
+        }
+        Long count = stringRedisTemplate.opsForZSet().zCard(categoryId != null ? keyOf(categoryId) : ALL_KEY);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 마감된 상품을 전체 피드와 각 상품의 카테고리 피드에서 제거 (다음 재계산 전까지 노출되지 않도록)
+     */
+    public void remove(Collection<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> membersByKey = new HashMap<>();
+        for (ProductResponse product : products) {
+            String member = String.valueOf(product.getId());
+            membersByKey.computeIfAbsent(ALL_KEY, key -> new ArrayList<>()).add(member);
+            if (product.getCategoryId() != null) {
+                membersByKey.computeIfAbsent(keyOf(product.getCategoryId()), key -> new ArrayList<>()).add(member);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : membersByKey.entrySet()) {
+            stringRedisTemplate.opsForZSet().remove(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * 상품 변경(등록/참여 승인/마감 등) 커밋 후 해당 상품의 피드 점수 갱신
+     * - 모집 중이면 전체/카테고리 피드에 새 점수로 추가, 마감/삭제되었으면 모든 피드에서 제거
+     * - 피드가 아직 계산되지 않았으면 예약된 재계산에 맡김
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        if (productId == null || !isBuilt()) {
+            return;
+        }
+
+        try {
+            ProductResponse product = productMapper.findFeedCandidateById(productId);
+            String member = String.valueOf(productId);
+            String categoryKey = product != null && product.getCategoryId() != null ? keyOf(product.getCategoryId()) : null;
+
+            // 이전 카테고리 피드에 남지 않도록 다른 피드에서는 제거
+            Set<String> feedKeys = stringRedisTemplate.opsForSet().members(KEYS_KEY);
+            if (feedKeys != null) {
+                for (String key : feedKeys) {
+                    if (product == null || (!key.equals(ALL_KEY) && !key.equals(categoryKey))) {
+                        stringRedisTemplate.opsForZSet().remove(key, member);
+                    }
+                }
+            }
+            if (product == null) {
+                return;
+            }
+
+            double score = baseScore(product, LocalDateTime.now());
+            stringRedisTemplate.opsForZSet().add(ALL_KEY, member, score);
+            if (categoryKey != null) {
+                stringRedisTemplate.opsForZSet().add(categoryKey, member, score);
+                stringRedisTemplate.opsForSet().add(KEYS_KEY, categoryKey);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update market feed for product {}: {}", productId, e.getMessage());
+        }
+    }
+
+    /** 기본 점수: 최신성 + 등록자 도파민 + 남은 모집 인원 비율 (각 0~1 에 가중치 적용) **/
+    private double baseScore(ProductResponse product, LocalDateTime now) {
+        double ageHours = product.getCreatedAt() != null
+                ? Math.max(Duration.between(product.getCreatedAt(), now).toMinutes() / 60.0, 0)
+                : recencyHalfLifeHours;
+        double recency = Math.pow(0.5, ageHours / recencyHalfLifeHours);
+
+        double dopamine = Math.min(Math.max(product.getDopamine() / 100.0, 0), 1);
+
+        double capacity = product.getMaxParticipants() > 0
+                ? Math.max(product.getMaxParticipants() - product.getCurrentParticipants(), 0) / (double) product.getMaxParticipants()
+                : 0;
+
+        return recencyWeight * recency + dopamineWeight * dopamine + capacityWeight * capacity;
+    }
+
+    /** 피드가 계산되었는지 (계산 전이면 예약된 재계산이 끝날 때까지 DB 조회로 대신함) **/
+    private boolean isBuilt() {
+        if (!built && Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEYS_KEY))) {
+            built = true;
+        }
+        return built;
+    }
+
+    private void replace(String key, Set<TypedTuple<String>> tuples) {
+        if (tuples.isEmpty()) {
+            stringRedisTemplate.delete(key);
+            return;
+        }
+
+        // 여러 노드가 동시에 재계산해도 서로 섞이지 않도록 노드마다 다른 임시 key 사용
+        // (쓰는 도중 종료되어도 남지 않도록 만료 시간을 두고, RENAME 후 만료 해제)
+        String tempKey = key + ":rebuild:" + UUID.randomUUID();
+        try {
+            List<TypedTuple<String>> chunk = new ArrayList<>(WRITE_CHUNK_SIZE);
+            for (TypedTuple<String> tuple : tuples) {
+                chunk.add(tuple);
+                if (chunk.size() == WRITE_CHUNK_SIZE) {
+                    writeChunk(tempKey, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(tempKey, chunk);
+            }
+            stringRedisTemplate.rename(tempKey, key);
+            stringRedisTemplate.persist(key);
+        } catch (RuntimeException e) {
+            stringRedisTemplate.delete(tempKey);
+            throw e;
+        }
+    }
+
+    private void writeChunk(String tempKey, List<TypedTuple<String>> chunk) {
+        stringRedisTemplate.opsForZSet().add(tempKey, new HashSet<>(chunk));
+        stringRedisTemplate.expire(tempKey, Duration.ofMinutes(refreshMinutes * 2));
+    }
+
+    private static List<Long> toIds(Set<String> members) {
+        List<Long> productIds = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                productIds.add(Long.valueOf(member));
+            }
+        }
+        return productIds;
+    }
+
+    private static String keyOf(Long categoryId) {
+        return KEY_PREFIX + categoryId;
+    }
+
+    /** 거리 점수를 더한 후보 **/
+    private static final class Scored {
+        private final long productId;
+        private final double score;
+
+        private Scored(long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+}
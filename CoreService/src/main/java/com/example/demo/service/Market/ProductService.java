@@ -1,27 +1,42 @@
 package com.example.demo.service.Market;
 
+import com.example.demo.dto.Market.PagedProductResponse;
+import com.example.demo.dto.Market.ProductCursorResponse;
 import com.example.demo.dto.Market.ProductRequest;
 import com.example.demo.dto.Market.ProductResponse;
 import com.example.demo.dto.Market.TransactionsRequest;
 import com.example.demo.dto.chat.ChatRoomRequest;
 import com.example.demo.dto.chat.ChatRoomResponse;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductRequestedEvent;
+import com.example.demo.mapper.EventOutboxMapper;
 import com.example.demo.mapper.Market.ProductMapper;
 import com.example.demo.mapper.Market.ProductImageMapper;
 import com.example.demo.mapper.Market.TransactionsMapper;
+import com.example.demo.model.EventOutbox;
+import com.example.demo.model.Market.ParticipantAdmission;
 import com.example.demo.model.Market.Product;
 import com.example.demo.model.Market.ProductImage;
+import com.example.demo.model.Market.UserLocation;
 import com.example.demo.service.ChatService;
 import com.example.demo.service.NotificationService;
+import com.example.demo.service.MediaBlobService;
 import com.example.demo.util.BaseResponse;
+import com.example.demo.util.CursorUtils;
+import com.example.demo.util.GeoUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.example.demo.mapper.Market.UserLocationMapper;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -36,13 +51,23 @@ public class ProductService {
     private final ChatService chatService;
     private final TransactionsMapper transactionsMapper;
     private final UserLocationMapper userLocationMapper;
+    private final NearbyProductIndex nearbyProductIndex;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventOutboxMapper eventOutboxMapper;
+    private final MediaBlobService mediaBlobService;
+    private final ProductFeedRanker productFeedRanker;
+
+    private static final String IMAGE_ENDPOINT = "/api/core/market/products/images/";
+
+    // 페이지 없이 주변 상품을 조회할 때 반환하는 최대 개수
+    @Value("${market.nearby.max-results:200}")
+    private int nearbyMaxResults;
 
     /** 전체 상품 목록 조회 (등록자 상품 조회 항상가능, 비로그인자 모집 중인 상품 조회 가능) **/
     public ResponseEntity<BaseResponse<List<ProductResponse>>> getAllProducts(String email) {
         try {
-            List<ProductResponse> products = productMapper.findAll(email).stream()
-                    .map(this::convertToProductResponse)
-                    .collect(Collectors.toList());
+            List<ProductResponse> products = convertToProductResponses(productMapper.findAll(email));
 
             return ResponseEntity.ok(new BaseResponse<>(products));
         } catch (Exception ex) {
@@ -88,33 +113,57 @@ public class ProductService {
 
             productMapper.insertProduct(product);
             Long productId = product.getId();
+            nearbyProductIndex.add(product); // 커밋 후 주변 상품 인덱스 반영
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
 
-            // 이미지 업로드 및 DB 저장 --? 삭제
+            // 이미지 업로드 및 DB 저장 (파일은 병렬 저장, DB 는 한 번의 다중 행 INSERT)
+            List<Map<String, Object>> failedImages = Collections.emptyList();
             if (images != null && !images.isEmpty()) {
-                // 한 개의 이미지도 리스트로 만들어서 `uploadProductImages` 호출
                 ResponseEntity<Object> response = imageUploadService.uploadProductImages(email, productId, images);
+                Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+
+                if (responseBody != null && responseBody.get("failedFiles") != null) {
+                    failedImages = (List<Map<String, Object>>) responseBody.get("failedFiles");
+                }
 
                 // 업로드된 이미지 경로를 가져와서 ProductImage 테이블에 저장
                 if (response.getStatusCode().is2xxSuccessful()) {
-                    Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
                     List<String> imagePaths = (List<String>) responseBody.get("imagePaths");
+                    List<String> contentTypes = (List<String>) responseBody.get("contentTypes");
 
-                    for (String imagePath : imagePaths) {
-                        ProductImage productImage = ProductImage.builder()
+                    List<ProductImage> productImages = new ArrayList<>(imagePaths.size());
+                    for (int i = 0; i < imagePaths.size(); i++) {
+                        productImages.add(ProductImage.builder()
                                 .productId(productId)
-                                .imagePath(imagePath)
-                                .isThumbnail(false)
-                                .build();
-                        productImageMapper.insertProductImage(productImage);
+                                .imagePath(imagePaths.get(i))
+                                .contentType(contentTypes.get(i))
+                                .contentHash(mediaBlobService.contentHashOf(imagePaths.get(i)))
+                                .isThumbnail(i == 0)
+                                .build());
+                    }
+                    try {
+                        productImageMapper.insertProductImages(productImages);
+                    } catch (Exception e) {
+                        // 업로드 스레드에서 이미 커밋된 파일 참조 해제 (이미지 행이 없으므로 다시 해제될 일이 없음)
+                        imagePaths.forEach(mediaBlobService::release);
+                        throw e;
                     }
+
+                    // 첫 번째 이미지를 대표 이미지로 지정 (목록 조회 시 이미지 조인 없이 사용)
+                    Long thumbnailImageId = productImages.get(0).getId();
+                    productMapper.updateThumbnailImageId(productId, thumbnailImageId);
+                    product.setThumbnailImageId(thumbnailImageId);
                 }
             }
 
             // 변환된 ProductResponse 생성
             ProductResponse productResponse = convertToProductResponse(product);
 
-            // 성공 메시지
-            return ResponseEntity.ok(new BaseResponse<>("success", "상품이 성공적으로 등록되었습니다.", productResponse));
+            // 성공 메시지 (업로드에 실패한 이미지가 있으면 개수 안내)
+            String message = failedImages.isEmpty()
+                    ? "상품이 성공적으로 등록되었습니다."
+                    : String.format("상품이 등록되었습니다. (이미지 %d개 업로드 실패)", failedImages.size());
+            return ResponseEntity.ok(new BaseResponse<>("success", message, productResponse));
 
         } catch (Exception ex) {
             return ResponseEntity.internalServerError()
@@ -122,37 +171,75 @@ public class ProductService {
         }
     }
 
-  /**  상품 요청, 채팅방 생성, 알림 전송을 통합 처리하는 메소드 세 가지 작업을 하나의 트랜잭션으로 일관성 있게 처리 **/
+    /**
+     * 상품 이미지 삭제 (등록자만 가능)
+     * - 대표 이미지를 삭제하면 남은 첫 번째 이미지를 대표 이미지로 지정
+     * - 파일은 커밋 후 참조를 해제하며, 같은 파일을 쓰는 다른 이미지가 없을 때만 삭제
+     */
+    @Transactional
+    public ResponseEntity<BaseResponse<String>> deleteProductImage(String email, Long productId, Long imageId) {
+        Product product = productDetailCache.findById(productId, email);
+        if (product == null) {
+            return ResponseEntity.status(404).body(BaseResponse.error("해당 상품을 찾을 수 없습니다."));
+        }
+        if (!product.getEmail().equals(email)) {
+            return ResponseEntity.status(403).body(BaseResponse.error("해당 상품의 등록자만 이미지를 삭제할 수 있습니다."));
+        }
+
+        ProductImage image = productImageMapper.findById(imageId);
+        if (image == null || !productId.equals(image.getProductId())) {
+            return ResponseEntity.status(404).body(BaseResponse.error("해당 이미지를 찾을 수 없습니다."));
+        }
+
+        productImageMapper.deleteById(imageId);
+        if (imageId.equals(product.getThumbnailImageId())) {
+            List<ProductImage> remaining = productImageMapper.findByProductId(productId);
+            productMapper.updateThumbnailImageId(productId, remaining.isEmpty() ? null : remaining.get(0).getId());
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productId)); // 커밋 후 상품 캐시 무효화
+        mediaBlobService.release(image.getImagePath());
+
+        return ResponseEntity.ok(BaseResponse.success(null, "이미지가 삭제되었습니다."));
+    }
+
+  /**  상품 요청, 채팅방 생성, 알림 전송을 통합 처리하는 메소드
+   *   요청 등록과 채팅방 생성은 하나의 트랜잭션으로 처리하고, 알림은 아웃박스에 기록해 커밋 후 비동기로 전송 **/
   @Transactional
   public ResponseEntity<BaseResponse<Map<String, Object>>> createProductRequestWithChatAndNotification(
           String requesterEmail, Long productId) {
       try {
           // 1. 상품 정보 및 등록자 확인
-          String productOwnerEmail = productMapper.findEmailByProductId(productId);
-          if (productOwnerEmail == null) {
+          Product product = productDetailCache.findById(productId, requesterEmail);
+          if (product == null) {
               return ResponseEntity.badRequest()
                       .body(new BaseResponse<>(null, "해당 상품을 찾을 수 없습니다."));
           }
+          String productOwnerEmail = product.getEmail();
 
-          // 2. 상품 요청 등록 (구매 요청/판매 요청) & 모집 인원 증가
-          productMapper.insertProductRequest(productId, requesterEmail);
-          productMapper.increaseCurrentParticipants(productId);
-          productMapper.updateProductVisibility(productId); // 모집 마감 여부 확인
-
-          // 3. 상품 정보 가져오기 (기존 코드 유지)
-          Product product = productMapper.findById(productId, requesterEmail);
-          if (product == null) {
-              return ResponseEntity.internalServerError()
-                      .body(new BaseResponse<>(null, "상품 요청은 저장되었지만, 상품 정보를 가져오는 데 실패했습니다."));
+          // 2. 상품 요청 등록 (구매 요청/판매 요청) - 모집 중인 상품에만 등록됨
+          //    모집 인원은 승인 시점에 admitRequest 로 확보하므로 상품 행은 변경하지 않음
+          if (productMapper.insertProductRequest(productId, requesterEmail) == 0) {
+              return ResponseEntity.badRequest()
+                      .body(new BaseResponse<>(null, "모집이 마감된 상품입니다."));
           }
 
-          // 4. 상품명 포함 알림 추가 (병합 전 코드 유지)
+          // 3. 상품명 포함 알림은 아웃박스에 기록하고 커밋 후 비동기로 전송
           String productName = product.getTitle();
           String message = String.format("\"%s\" 상품에 대한 새로운 신청이 도착했습니다!", productName);
-          notificationService.sendNotification(
-            productOwnerEmail, message, "PRODUCT_REQUEST", 0, productId);
-
-          // 5. 채팅방 생성 (기존과 동일)
+          Map<String, Object> payload = new HashMap<>();
+          payload.put("receiverEmail", productOwnerEmail);
+          payload.put("requesterEmail", requesterEmail);
+          payload.put("message", message);
+
+          EventOutbox outbox = EventOutbox.builder()
+                  .eventType(ProductRequestedEvent.EVENT_TYPE)
+                  .aggregateId(productId)
+                  .payload(new ObjectMapper().writeValueAsString(payload))
+                  .build();
+          eventOutboxMapper.insertEvent(outbox);
+          eventPublisher.publishEvent(new ProductRequestedEvent(outbox.getId(), productId));
+
+          // 4. 채팅방 생성 (기존과 동일)
           ChatRoomRequest chatRoomRequest = new ChatRoomRequest();
           chatRoomRequest.setProductId(productId);
 
@@ -162,12 +249,8 @@ public class ProductService {
               throw new RuntimeException("채팅방 생성 실패: " + chatResponse.getMessage());
           }
 
-          // 6. 모집 인원 충족 시 상태 업데이트
-          if (product.getCurrentParticipants() >= product.getMaxParticipants()) {
-              productMapper.updateRequestStatusToComplete(productId);
-          }
-
-          // 7. 응답 데이터 구성
+          // 5. 응답 데이터 구성
+          //    (모집 인원 충족 시 상태 변경은 승인 시점의 admitRequest 가 처리)
           Map<String, Object> responseData = new HashMap<>();
 
           // 요청 정보
@@ -219,7 +302,7 @@ public class ProductService {
 
     /** 개별 상품 조회 **/
     public ProductResponse getProductById(Long id, String email) {
-        Product product = productMapper.findById(id, email);
+        Product product = productDetailCache.findById(id, email);
         if (product == null) {
             throw new RuntimeException("해당 상품을 찾을 수 없습니다.");
         }
@@ -232,7 +315,7 @@ public class ProductService {
     public ResponseEntity<BaseResponse<String>> approveProductRequest(String ownerEmail, Long productId, Long requestId) {
         try {
             // 상품 정보 가져오기
-            Product product = productMapper.findById(productId, ownerEmail);
+            Product product = productDetailCache.findById(productId, ownerEmail);
             if (product == null) {
                 return ResponseEntity.status(404).body(new BaseResponse<>("해당 상품을 찾을 수 없습니다."));
             }
@@ -253,21 +336,15 @@ public class ProductService {
                 return ResponseEntity.status(403).body(new BaseResponse<>("해당 상품의 등록자만 요청을 승인할 수 있습니다."));
             }
 
-            // 현재 승인된 참여 인원 가져오기 (미승인 요청 제외)
-            int approvedParticipants = productMapper.getCurrentParticipants(productId);
-
-            // 최대 참여 인원을 초과할 수 없는지 확인
-            if (approvedParticipants >= product.getMaxParticipants()) {
+            // 요청 승인 + 모집 인원 확보 (최대 인원 초과 시 승인되지 않음)
+            AdmissionResult admission = admitRequest(productId, requestId);
+            if (admission == AdmissionResult.ALREADY_PROCESSED) {
+                return ResponseEntity.status(400).body(new BaseResponse<>("승인 불가: 이미 처리된 요청입니다."));
+            }
+            if (admission == AdmissionResult.FULL) {
                 return ResponseEntity.status(400).body(new BaseResponse<>("승인 불가: 최대 참여 인원을 초과할 수 없습니다."));
             }
 
-            // 상품 요청 승인 처리 (`ProductRequests` 테이블 업데이트)
-            productMapper.updateRequestApprovalStatus(requestId, "승인");
-            approvedParticipants++;
-
-            // 승인된 요청이 남아있으므로 `currentParticipants` 증가 가능
-            productMapper.increaseCurrentParticipants(productId);
-
             // 상품명 가져오기
             String productName = product.getTitle();
             String message = String.format("\"%s\" 요청이 승인되었습니다!", productName);
@@ -303,12 +380,6 @@ public class ProductService {
 
             transactionsMapper.insertTransaction(transaction); // 거래 테이블에 저장
 
-            // 모집이 완료된 경우 자동으로 상태를 '완료'로 변경
-            if (approvedParticipants + 1 >= product.getMaxParticipants()) {
-                productMapper.updateRequestStatusToComplete(productId); // 승인된 요청들의 상태 변경
-                productMapper.updateProductStatusToComplete(productId); // 상품 모집 마감 처리
-            }
-
             return ResponseEntity.ok(new BaseResponse<>("상품 요청이 승인되어 거래가 생성되었습니다."));
 
         } catch (Exception ex) {
@@ -318,24 +389,201 @@ public class ProductService {
     }
 
 
+    /** 요청 승인 결과 **/
+    public enum AdmissionResult {
+        ADMITTED,           // 승인 및 자리 확보 (모집 계속)
+        CLOSED,             // 승인 및 마지막 자리 확보 (모집 마감)
+        ALREADY_PROCESSED,  // 이미 승인되었거나 해당 상품의 요청이 아님
+        FULL                // 남은 자리가 없어 승인 불가
+    }
+
+    /**
+     * 요청 승인과 모집 인원 확보를 원자적으로 처리
+     * - 미승인 요청만 승인 (요청 행 잠금으로 중복 승인 방지)
+     * - current_participants < max_participants 조건으로 1 증가, 마지막 자리면 같은 UPDATE 에서 모집 마감 (남은 자리도 함께 반환)
+     * - 자리를 얻지 못하면 같은 트랜잭션에서 승인을 되돌림
+     */
+    @Transactional
+    public AdmissionResult admitRequest(Long productId, Long requestId) {
+        if (productMapper.approvePendingRequest(requestId, productId) == 0) {
+            return AdmissionResult.ALREADY_PROCESSED;
+        }
+
+        ParticipantAdmission admission = ParticipantAdmission.builder().productId(productId).build();
+        if (productMapper.admitParticipant(admission) == 0) {
+            productMapper.revertRequestApproval(requestId);
+            return AdmissionResult.FULL;
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productId)); // 커밋 후 상품 캐시 무효화
+
+        // 남은 자리는 같은 UPDATE 에서 받음 (마지막 자리였으면 상품은 이미 마감됨)
+        Integer remainingSlots = admission.getRemainingSlots();
+        if (remainingSlots != null && remainingSlots <= 0) {
+            productMapper.updateRequestStatusToComplete(productId); // 승인된 요청들의 상태 변경
+            nearbyProductIndex.remove(productId); // 커밋 후 주변 상품 인덱스에서 제거
+            return AdmissionResult.CLOSED;
+        }
+        return AdmissionResult.ADMITTED;
+    }
+
     /** 상품 목록 조회 (is_visible = TRUE인 상품만 조회) **/
     public List<ProductResponse> getProducts(Long categoryId, String sort) {
-        return productMapper.findFilteredProducts(categoryId, sort).stream()
-                .map(this::convertToProductResponse) // DTO 변환
+        return convertToProductResponses(productMapper.findFilteredProducts(categoryId, sort)).stream() // DTO 변환
                 .filter(ProductResponse::isVisible) // 모집 마감된 상품 제외
                 .collect(Collectors.toList());
     }
 
 
+    /** 전체 상품 커서 페이지 조회 (최신 등록순, 페이지 크기만큼만 조회) **/
+    public ResponseEntity<BaseResponse<ProductCursorResponse>> getAllProductsByCursor(String email, String cursor, Integer size) {
+        try {
+            int pageSize = normalizePageSize(size);
+            Long cursorId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                String[] parts = CursorUtils.decode(cursor, 2);
+                if (!"id".equals(parts[0])) {
+                    throw new IllegalArgumentException("유효하지 않은 커서입니다.");
+                }
+                cursorId = Long.parseLong(parts[1]);
+            }
+
+            // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+            List<Product> products = productMapper.findAllByCursor(email, cursorId, pageSize + 1);
+            boolean hasNext = products.size() > pageSize;
+            if (hasNext) {
+                products = products.subList(0, pageSize);
+            }
+
+            String nextCursor = hasNext
+                    ? CursorUtils.encode("id", products.get(products.size() - 1).getId())
+                    : null;
+
+            return ResponseEntity.ok(new BaseResponse<>(ProductCursorResponse.builder()
+                    .content(convertToProductResponses(products))
+                    .size(pageSize)
+                    .hasNext(hasNext)
+                    .nextCursor(nextCursor)
+                    .build()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("유효하지 않은 커서입니다."));
+        } catch (Exception ex) {
+            return ResponseEntity.internalServerError()
+                    .body(new BaseResponse<>(null, "전체 상품 조회 중 오류 발생: " + ex.getMessage()));
+        }
+    }
+
+    /** 카테고리별 필터 + 가격순/최신순 정렬 커서 페이지 조회 (is_visible = TRUE인 상품만 조회) **/
+    public ResponseEntity<BaseResponse<ProductCursorResponse>> getProductsByCursor(
+            Long categoryId, String sort, String cursor, Integer size) {
+        try {
+            int pageSize = normalizePageSize(size);
+            String sortKey = "price".equals(sort) || "createdAt".equals(sort) ? sort : "id";
+
+            Integer cursorPrice = null;
+            LocalDateTime cursorCreatedAt = null;
+            Long cursorId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                // 커서 형식: 정렬 기준 | 정렬 값 | 상품 ID
+                String[] parts = CursorUtils.decode(cursor, 3);
+                if (!sortKey.equals(parts[0])) {
+                    throw new IllegalArgumentException("커서의 정렬 기준이 요청과 일치하지 않습니다.");
+                }
+                if ("price".equals(sortKey)) {
+                    cursorPrice = Integer.parseInt(parts[1]);
+                } else if ("createdAt".equals(sortKey)) {
+                    cursorCreatedAt = LocalDateTime.parse(parts[1]);
+                }
+                cursorId = Long.parseLong(parts[2]);
+            }
+
+            // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+            List<Product> products = productMapper.findFilteredProductsByCursor(
+                    categoryId, sortKey, cursorPrice, cursorCreatedAt, cursorId, pageSize + 1);
+            boolean hasNext = products.size() > pageSize;
+            if (hasNext) {
+                products = products.subList(0, pageSize);
+            }
+
+            String nextCursor = null;
+            if (hasNext) {
+                Product last = products.get(products.size() - 1);
+                Object sortValue = "price".equals(sortKey) ? last.getPrice()
+                        : "createdAt".equals(sortKey) ? last.getCreatedAt()
+                        : "";
+                nextCursor = CursorUtils.encode(sortKey, sortValue, last.getId());
+            }
+
+            return ResponseEntity.ok(new BaseResponse<>(ProductCursorResponse.builder()
+                    .content(convertToProductResponses(products))
+                    .size(pageSize)
+                    .hasNext(hasNext)
+                    .nextCursor(nextCursor)
+                    .build()));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("유효하지 않은 커서입니다."));
+        } catch (Exception ex) {
+            return ResponseEntity.internalServerError()
+                    .body(new BaseResponse<>(null, "상품 목록 조회 중 오류 발생: " + ex.getMessage()));
+        }
+    }
+
+    /** 키워드로 상품 검색 - 제목/설명 관련도순, 카테고리/가격 범위/거래방식 필터, 모집 중인 상품만 조회 **/
+    public ResponseEntity<BaseResponse<PagedProductResponse>> searchProducts(
+            String keyword, Long categoryId, Integer minPrice, Integer maxPrice,
+            String transactionType, Integer page, Integer size) {
+        // ngram 토큰 크기(2)보다 짧은 검색어는 FULLTEXT 인덱스로 찾을 수 없음
+        String trimmedKeyword = keyword != null ? keyword.trim() : "";
+        if (trimmedKeyword.length() < 2) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("검색어는 2자 이상 입력해주세요."));
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("최소 가격이 최대 가격보다 클 수 없습니다."));
+        }
+
+        try {
+            int pageNumber = page != null && page >= 0 ? page : 0;
+            int pageSize = normalizePageSize(size);
+            String type = transactionType != null && !transactionType.isBlank() ? transactionType : null;
+
+            List<Product> products = productMapper.searchProducts(
+                    trimmedKeyword, categoryId, minPrice, maxPrice, type, pageNumber * pageSize, pageSize);
+            int totalCount = productMapper.countSearchProducts(
+                    trimmedKeyword, categoryId, minPrice, maxPrice, type);
+            int totalPages = (totalCount + pageSize - 1) / pageSize;
+
+            PagedProductResponse response = PagedProductResponse.builder()
+                    .content(convertToProductResponses(products))
+                    .pageNumber(pageNumber)
+                    .pageSize(pageSize)
+                    .totalPages(totalPages)
+                    .totalElements(totalCount)
+                    .first(pageNumber == 0)
+                    .last(pageNumber >= totalPages - 1)
+                    .build();
+
+            return ResponseEntity.ok(BaseResponse.success(response, "상품 검색이 완료되었습니다."));
+        } catch (Exception ex) {
+            log.error("상품 검색 중 오류 발생: {}", ex.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new BaseResponse<>(null, "상품 검색 중 오류 발생: " + ex.getMessage()));
+        }
+    }
+
+    /** 페이지 크기 기본값(20) 및 최대값(100) 적용 **/
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return 20;
+        }
+        return Math.min(size, 100);
+    }
+
     /** 특정 사용자가 등록한 상품 목록 조회 (구매, 판매, 구매 요청, 판매 요청) **/
     public ResponseEntity<BaseResponse<List<ProductResponse>>> getProductsByUserAndType(String email, List<String> types) {
         try {
             List<Product> products = productMapper.findProductsByEmailAndType(email, types);
 
             // ProductResponse로 변환
-            List<ProductResponse> productResponses = products.stream()
-                    .map(this::convertToProductResponse)
-                    .collect(Collectors.toList());
+            List<ProductResponse> productResponses = convertToProductResponses(products);
 
             return ResponseEntity.ok(new BaseResponse<>(productResponses));
         } catch (Exception ex) {
@@ -349,9 +597,7 @@ public class ProductService {
         try {
             List<Product> products = productMapper.findMyRegisteredBuyProducts(email); // `ProductWithImagesMap` 사용
 
-            List<ProductResponse> productResponses = products.stream()
-                    .map(this::convertToProductResponse) // 변환 로직 추가
-                    .collect(Collectors.toList());
+            List<ProductResponse> productResponses = convertToProductResponses(products);
 
             return ResponseEntity.ok(new BaseResponse<>(productResponses));
         } catch (Exception ex) {
@@ -365,9 +611,7 @@ public class ProductService {
         try {
             List<Product> products = productMapper.findMyRegisteredSellProducts(email);  // Product 객체 반환
 
-            List<ProductResponse> productResponses = products.stream()
-                    .map(this::convertToProductResponse) // ProductResponse로 변환
-                    .collect(Collectors.toList());
+            List<ProductResponse> productResponses = convertToProductResponses(products);
 
             return ResponseEntity.ok(new BaseResponse<>(productResponses));
         } catch (Exception ex) {
@@ -381,9 +625,7 @@ public class ProductService {
         try {
             List<Product> products = productMapper.findMyRequestedBuyProducts(email);  // Product 객체 반환
 
-            List<ProductResponse> productResponses = products.stream()
-                    .map(this::convertToProductResponse) // ProductResponse로 변환
-                    .collect(Collectors.toList());
+            List<ProductResponse> productResponses = convertToProductResponses(products);
 
             return ResponseEntity.ok(new BaseResponse<>(productResponses));
         } catch (Exception ex) {
@@ -397,50 +639,185 @@ public class ProductService {
             int distance,
             String email) {
 
-        Double latitude = userLocationMapper.getUserLatestLocation(email).getLatitude();
-        Double longitude = userLocationMapper.getUserLatestLocation(email).getLongitude();
-
-        // 디버그 확인
-        System.out.println("Received - latitude: " + latitude + ", longitude: " + longitude + ", distance: " + distance);
+        UserLocation location = userLocationMapper.getUserLatestLocation(email);
+        Double latitude = location != null ? location.getLatitude() : null;
+        Double longitude = location != null ? location.getLongitude() : null;
 
         // 필수 값 검증 (누락된 값이 있으면 즉시 반환)
-        if (latitude == null || latitude == 0.0) {
-            return ResponseEntity.badRequest().body(BaseResponse.error("위도 값이 누락되었습니다."));
-        }
-        if (longitude == null || longitude == 0.0) {
-            return ResponseEntity.badRequest().body(BaseResponse.error("경도 값이 누락되었습니다."));
-        }
-        if (distance == 0) {
-            return ResponseEntity.badRequest().body(BaseResponse.error("거리 값이 누락되었습니다."));
+        ResponseEntity<BaseResponse<List<ProductResponse>>> invalid = validateNearbyParams(latitude, longitude, distance);
+        if (invalid != null) {
+            return invalid;
         }
 
-        // 모든 값이 정상적으로 들어왔을 때만 상품 검색 수행
-        List<ProductResponse> products = productMapper.findNearbyProducts(latitude, longitude, distance);
+        // 모든 값이 정상적으로 들어왔을 때만 상품 검색 수행 (거리순 정렬)
+        List<ProductResponse> products;
+        if (nearbyProductIndex.isReady()) {
+            // 메모리 인덱스에서 거리순 상위 상품 ID를 구한 뒤 한 번에 상세 조회
+            products = findNearbyProductsByIds(
+                    nearbyProductIndex.findNearbyProductIds(latitude, longitude, distance, nearbyMaxResults));
+        } else {
+            double[] box = GeoUtils.boundingBox(latitude, longitude, distance);
+            products = productMapper.findNearbyProducts(
+                    latitude, longitude, distance, box[0], box[1], box[2], box[3], 0, nearbyMaxResults);
+        }
 
         // 상품이 없을 때 200 OK + 메시지 반환
         if (products == null || products.isEmpty()) {
             return ResponseEntity.ok(BaseResponse.success(Collections.emptyList(), "주변에 검색된 상품이 없습니다. 거리 반경을 늘리거나, 등록 위치를 확인하세요."));
         }
 
-        // 중복 제거를 위한 Map 사용
-        Map<Long, ProductResponse> productMap = new HashMap<>();
-        products.forEach(product -> productMap.putIfAbsent(product.getId(), product));
+        applyNearbyImages(products);
 
-        // 이미지 리스트 및 썸네일 설정
-        productMap.values().forEach(product -> {
-            List<String> imagePaths = productImageMapper.findByProductId(product.getId())
-                    .stream()
-                    .map(image -> image.getImagePath())
-                    .collect(Collectors.toList());
+        return ResponseEntity.ok(BaseResponse.success(products, "주변 상품 조회가 완료되었습니다."));
+    }
 
-            product.setImagePaths(imagePaths);
+    /** 사용자의 위치 기반으로 특정 반경 내 상품을 거리순 페이지 단위로 조회 (전체 개수 포함) **/
+    public ResponseEntity<BaseResponse<PagedProductResponse>> getNearbyProducts(
+            int distance,
+            String email,
+            Integer page,
+            Integer size) {
 
-            if (!imagePaths.isEmpty()) {
-                product.setThumbnailPath(imagePaths.get(0));
+        UserLocation location = userLocationMapper.getUserLatestLocation(email);
+        Double latitude = location != null ? location.getLatitude() : null;
+        Double longitude = location != null ? location.getLongitude() : null;
+
+        ResponseEntity<BaseResponse<PagedProductResponse>> invalid = validateNearbyParams(latitude, longitude, distance);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        // 기본값 설정
+        int pageNumber = page != null && page >= 0 ? page : 0;
+        int pageSize = size != null && size > 0 ? size : 20;
+        int offset = pageNumber * pageSize;
+
+        List<ProductResponse> products;
+        int totalCount;
+        if (nearbyProductIndex.isReady()) {
+            products = findNearbyProductsByIds(
+                    nearbyProductIndex.findNearbyProductIds(latitude, longitude, distance, offset, pageSize));
+            totalCount = nearbyProductIndex.countNearbyProducts(latitude, longitude, distance);
+        } else {
+            double[] box = GeoUtils.boundingBox(latitude, longitude, distance);
+            products = productMapper.findNearbyProducts(
+                    latitude, longitude, distance, box[0], box[1], box[2], box[3], offset, pageSize);
+            totalCount = productMapper.countNearbyProducts(
+                    latitude, longitude, distance, box[0], box[1], box[2], box[3]);
+        }
+
+        applyNearbyImages(products);
+
+        // 총 페이지 수 계산
+        int totalPages = (totalCount + pageSize - 1) / pageSize;
+
+        PagedProductResponse response = PagedProductResponse.builder()
+                .content(products)
+                .pageNumber(pageNumber)
+                .pageSize(pageSize)
+                .totalPages(totalPages)
+                .totalElements(totalCount)
+                .first(pageNumber == 0)
+                .last(pageNumber >= totalPages - 1)
+                .build();
+
+        return ResponseEntity.ok(BaseResponse.success(response, "주변 상품 조회가 완료되었습니다."));
+    }
+
+    /**
+     * 홈 피드 조회 (미리 계산한 랭킹 점수순, 로그인 사용자는 가까운 상품 가산점 반영)
+     * - 점수 계산 없이 Redis Sorted Set 에서 상품 ID 만 꺼낸 뒤 상세 정보를 IN 쿼리 한 번으로 조회
+     * - 다음 재계산 전에 마감된 상품은 응답에서 빼고 피드에서도 제거
+     */
+    public ResponseEntity<BaseResponse<PagedProductResponse>> getFeed(String email, Long categoryId, Integer page, Integer size) {
+        try {
+            int pageNumber = page != null && page >= 0 ? page : 0;
+            int pageSize = normalizePageSize(size);
+
+            UserLocation location = email != null ? userLocationMapper.getUserLatestLocation(email) : null;
+            Double latitude = location != null ? location.getLatitude() : null;
+            Double longitude = location != null ? location.getLongitude() : null;
+
+            List<ProductResponse> products = findNearbyProductsByIds(productFeedRanker.findRankedProductIds(
+                    categoryId, latitude, longitude, pageNumber * pageSize, pageSize));
+
+            List<ProductResponse> closedProducts = products.stream()
+                    .filter(product -> !product.isVisible())
+                    .collect(Collectors.toList());
+            if (!closedProducts.isEmpty()) {
+                productFeedRanker.remove(closedProducts);
+                products.removeIf(product -> !product.isVisible());
             }
-        });
 
-        return ResponseEntity.ok(BaseResponse.success(List.copyOf(productMap.values()), "주변 상품 조회가 완료되었습니다."));
+            applyNearbyImages(products);
+
+            int totalCount = (int) productFeedRanker.countRankedProducts(categoryId);
+            int totalPages = (totalCount + pageSize - 1) / pageSize;
+
+            PagedProductResponse response = PagedProductResponse.builder()
+                    .content(products)
+                    .pageNumber(pageNumber)
+                    .pageSize(pageSize)
+                    .totalPages(totalPages)
+                    .totalElements(totalCount)
+                    .first(pageNumber == 0)
+                    .last(pageNumber >= totalPages - 1)
+                    .build();
+
+            return ResponseEntity.ok(BaseResponse.success(response, "피드 조회가 완료되었습니다."));
+        } catch (Exception ex) {
+            log.error("피드 조회 중 오류 발생: {}", ex.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(new BaseResponse<>(null, "피드 조회 중 오류 발생: " + ex.getMessage()));
+        }
+    }
+
+    /** 주변 상품 인덱스가 찾은 상품 ID 순서(거리순)대로 상세 정보 조회 **/
+    private List<ProductResponse> findNearbyProductsByIds(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ProductResponse> productMap = productMapper.findNearbyProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, product -> product, (a, b) -> a));
+
+        return productIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /** 주변 상품 조회 파라미터 검증 (정상이면 null 반환) **/
+    private <T> ResponseEntity<BaseResponse<T>> validateNearbyParams(Double latitude, Double longitude, int distance) {
+        if (latitude == null || latitude == 0.0) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("위도 값이 누락되었습니다."));
+        }
+        if (longitude == null || longitude == 0.0) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("경도 값이 누락되었습니다."));
+        }
+        if (distance == 0) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("거리 값이 누락되었습니다."));
+        }
+        return null;
+    }
+
+    /** 주변 상품의 이미지 리스트 설정 (상품 ID 목록으로 한 번에 조회) **/
+    private void applyNearbyImages(List<ProductResponse> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+
+        List<Long> productIds = products.stream()
+                .map(ProductResponse::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ProductImage>> imagesByProductId = findImagesByProductIds(productIds);
+
+        // 대표 이미지(thumbnailPath)는 쿼리에서 thumbnail_image_id 로 함께 조회됨
+        products.forEach(product -> product.setImagePaths(
+                imagesByProductId.getOrDefault(product.getId(), Collections.emptyList())
+                        .stream()
+                        .map(ProductImage::getImagePath)
+                        .collect(Collectors.toList())));
     }
 
     /** 내가 요청한 상품 목록 조회 (판매 요청만) **/
@@ -448,9 +825,7 @@ public class ProductService {
         try {
             List<Product> products = productMapper.findMyRequestedSellProducts(email);  // Product 객체 반환
 
-            List<ProductResponse> productResponses = products.stream()
-                    .map(this::convertToProductResponse) // ProductResponse로 변환
-                    .collect(Collectors.toList());
+            List<ProductResponse> productResponses = convertToProductResponses(products);
 
             return ResponseEntity.ok(new BaseResponse<>(productResponses));
         } catch (Exception ex) {
@@ -460,10 +835,43 @@ public class ProductService {
         }
     }
 
+    /** 상품 목록을 ProductResponse 목록으로 변환 (이미지는 IN 쿼리 한 번으로 일괄 조회) **/
+    private List<ProductResponse> convertToProductResponses(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, List<ProductImage>> imagesByProductId = findImagesByProductIds(productIds);
+
+        return products.stream()
+                .map(product -> convertToProductResponse(product,
+                        imagesByProductId.getOrDefault(product.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    /** 상품 ID 목록에 해당하는 이미지를 조회하여 상품 ID → 이미지 목록 Map 으로 구성 **/
+    private Map<Long, List<ProductImage>> findImagesByProductIds(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return productImageMapper.findByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductImage::getProductId, LinkedHashMap::new, Collectors.toList()));
+    }
+
     /** 상품 객체를 ProductResponse로 변환 **/
     private ProductResponse convertToProductResponse(Product product) {
-        List<String> imageUrls = productImageMapper.findByProductId(product.getId()).stream()
-                .map(image -> "/api/core/market/products/images/" + image.getId()) // 이미지 엔드포인트 반환
+        return convertToProductResponse(product, productImageMapper.findByProductId(product.getId()));
+    }
+
+    /** 상품 객체를 ProductResponse로 변환 (미리 조회한 이미지 사용) **/
+    private ProductResponse convertToProductResponse(Product product, List<ProductImage> images) {
+        List<String> imageUrls = images.stream()
+                .map(image -> IMAGE_ENDPOINT + image.getId()) // 이미지 엔드포인트 반환
                 .collect(Collectors.toList());
 
         // `days` JSON 문자열을 List<String>으로 변환
@@ -498,7 +906,9 @@ public class ProductService {
                 .address(product.getAddress())
                 .createdAt(product.getCreatedAt())
                 .imagePaths(imageUrls)
-                .thumbnailPath(imageUrls.isEmpty() ? null : imageUrls.get(0))
+                .thumbnailPath(product.getThumbnailImageId() != null
+                        ? IMAGE_ENDPOINT + product.getThumbnailImageId()
+                        : imageUrls.isEmpty() ? null : imageUrls.get(0))
                 .nickname(product.getNickname())
                 .bio(product.getBio())
                 .dopamine(product.getDopamine())
@@ -513,7 +923,7 @@ public class ProductService {
         log.info("승인 상태 조회 요청: email={}, productId={}", email, productId);
         
         // 상품 정보 조회
-        Product product = productMapper.findById(productId, email);
+        Product product = productDetailCache.findById(productId, email);
         if (product == null) {
             log.warn("상품을 찾을 수 없음: productId={}", productId);
             return "미신청";
@@ -1,23 +1,37 @@
 package com.example.demo.service.Market;
 
+import com.example.demo.dto.Market.PagedTransactionsResponse;
 import com.example.demo.dto.Market.TransactionsRequest;
 import com.example.demo.dto.Market.TransactionsResponse;
 import com.example.demo.mapper.Market.TransactionsMapper;
-import com.example.demo.mapper.Market.PaymentsMapper; // 추가됨
 import com.example.demo.util.BaseResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionsService {
 
+    public static final String EXPORT_FORMAT_CSV = "csv";
+    public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+
+    private static final String CSV_HEADER =
+            "id,productId,requestEmail,sellerEmail,transactionStatus,paymentStatus,price,paidTotal,description,createdAt";
+
     private final TransactionsMapper transactionsMapper;
-    private final PaymentsMapper paymentsMapper;
+    private final ObjectMapper objectMapper;
 
     /** 거래 생성 **/
     public TransactionsResponse createTransaction(TransactionsRequest request) {
@@ -37,18 +51,93 @@ public class TransactionsService {
         return ResponseEntity.ok(new BaseResponse<>(transactions));
     }
 
+    /** 사용자별 거래 내역 페이지 조회 (최신순, 화면 표시용) **/
+    public ResponseEntity<BaseResponse<PagedTransactionsResponse>> getUserTransactionsPaged(String email, Integer page, Integer size) {
+        int pageNumber = page != null && page >= 0 ? page : 0;
+        int pageSize = size == null || size <= 0 ? 20 : Math.min(size, 100);
 
+        List<TransactionsResponse> transactions =
+                transactionsMapper.findTransactionsByUserPaged(email, pageNumber * pageSize, pageSize);
+        int totalCount = transactionsMapper.countTransactionsByUser(email);
+        int totalPages = (totalCount + pageSize - 1) / pageSize;
+
+        PagedTransactionsResponse response = PagedTransactionsResponse.builder()
+                .content(transactions)
+                .pageNumber(pageNumber)
+                .pageSize(pageSize)
+                .totalPages(totalPages)
+                .totalElements(totalCount)
+                .first(pageNumber == 0)
+                .last(pageNumber >= totalPages - 1)
+                .build();
+        return ResponseEntity.ok(new BaseResponse<>(response));
+    }
 
-    /** 결제 완료 시 거래 상태 자동 변경 **/
-    @Transactional
-    public void updateTransactionStatusOnPayment(Long transactionId) {
-        // 거래 금액과 결제 금액 비교
-        int totalPaid = paymentsMapper.getTotalPaidByTransaction(transactionId);
-        int transactionPrice = transactionsMapper.getTransactionPrice(transactionId);
+    /**
+     * 사용자별 전체 거래 내역 내보내기 (csv | ndjson)
+     * - DB 커서로 한 행씩 읽어 바로 출력 스트림에 쓰므로 거래 수와 관계없이 메모리 사용량이 일정
+     * - 커서는 트랜잭션(연결)이 열려 있는 동안에만 순회할 수 있어 읽기 전용 트랜잭션 안에서 처리
+     */
+    @Transactional(readOnly = true)
+    public void exportUserTransactions(String email, String format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        try (Cursor<TransactionsResponse> cursor = transactionsMapper.streamTransactionsByUser(email)) {
+            if (EXPORT_FORMAT_CSV.equals(format)) {
+                writer.write('\uFEFF'); // 엑셀에서 한글이 깨지지 않도록 BOM 추가
+                writer.write(CSV_HEADER);
+                writer.write("\r\n");
+                for (TransactionsResponse transaction : cursor) {
+                    writeCsvRow(writer, transaction);
+                }
+            } else {
+                for (TransactionsResponse transaction : cursor) {
+                    writer.write(objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
 
-        // 결제 금액이 충족되었으면 거래 상태를 "완료"로 변경
-        if (totalPaid >= transactionPrice) {
-            transactionsMapper.updateTransactionStatusOnPayment(transactionId);
+    private void writeCsvRow(Writer writer, TransactionsResponse transaction) throws IOException {
+        Object[] values = {
+                transaction.getId(),
+                transaction.getProductId(),
+                transaction.getRequest_email(),
+                transaction.getSellerEmail(),
+                transaction.getTransactionStatus(),
+                transaction.getPaymentStatus(),
+                transaction.getPrice(),
+                transaction.getPaidTotal(),
+                transaction.getDescription(),
+                transaction.getCreatedAt()
+        };
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * CSV 값 변환 (쉼표/따옴표/줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번 씀)
+     * 사용자 입력 문자열이 = + - @ 로 시작하면 스프레드시트 수식으로 실행되지 않도록 ' 를 붙임
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
         }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
     }
 }
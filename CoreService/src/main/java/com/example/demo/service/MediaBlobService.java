@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.MediaBlobMapper;
+import com.example.demo.model.MediaBlob;
+import com.example.demo.service.Market.ImageVariantService;
+import com.example.demo.storage.MediaStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 내용 주소 방식(content-addressed) 업로드 미디어 저장
+ * - 업로드 내용의 SHA-256 으로 "uploads/sha256/{앞 2자리}/{해시}.{확장자}" 에 저장하여 같은 파일은 한 번만 보관
+ * - MediaBlobs.ref_count 로 참조 수를 관리하고, 마지막 참조가 해제될 때 파일(및 파생 이미지)을 삭제
+ */
+@Slf4j
+@Service
+public class MediaBlobService {
+
+    private static final String BLOB_DIR = "uploads/sha256/";
+    private static final Pattern BLOB_KEY = Pattern.compile("^uploads/sha256/[0-9a-f]{2}/([0-9a-f]{64})(\\.[a-z0-9]{1,5})?$");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+
+    // 중복 제거 이전에 업로드 파일을 저장하던 디렉토리 (파일 하나를 한 행만 참조)
+    private static final List<String> LEGACY_DIRECTORIES = List.of("uploads/", "board-images/", "board-files/");
+
+    private final MediaStore mediaStore;
+    private final MediaBlobMapper mediaBlobMapper;
+    private final ImageVariantService imageVariantService;
+    private final TransactionTemplate transactionTemplate;
+
+    public MediaBlobService(MediaStore mediaStore,
+                            MediaBlobMapper mediaBlobMapper,
+                            ImageVariantService imageVariantService,
+                            PlatformTransactionManager transactionManager) {
+        this.mediaStore = mediaStore;
+        this.mediaBlobMapper = mediaBlobMapper;
+        this.imageVariantService = imageVariantService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 업로드 파일을 저장하고 참조를 하나 추가한 뒤 웹 경로("/uploads/sha256/...") 반환
+     * 같은 내용이 이미 저장되어 있으면 파일을 다시 쓰지 않음
+     */
+    public String store(MultipartFile file, String contentType) throws IOException {
+        // 디스크에 임시 저장된 파트를 스트림으로 읽어 해시 계산 (파일 전체를 메모리에 올리지 않음)
+        String contentHash;
+        try (InputStream inputStream = file.getInputStream()) {
+            contentHash = sha256(inputStream);
+        }
+
+        mediaBlobMapper.acquire(MediaBlob.builder()
+                .contentHash(contentHash)
+                .storageKey(BLOB_DIR + contentHash.substring(0, 2) + "/" + contentHash + extensionOf(file.getOriginalFilename()))
+                .size(file.getSize())
+                .contentType(contentType)
+                .build());
+
+        // 처음 저장한 업로드의 key 를 사용 (확장자가 달라도 같은 파일)
+        String key = mediaBlobMapper.findByHash(contentHash).getStorageKey();
+        try {
+            if (!mediaStore.exists(key)) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    mediaStore.put(key, inputStream, file.getSize(), contentType);
+                }
+            } else {
+                log.debug("중복 업로드 파일 재사용: {}", key);
+            }
+        } catch (IOException e) {
+            releaseNow("/" + key);
+            throw e;
+        }
+        return "/" + key;
+    }
+
+    /**
+     * 웹 경로가 가리키는 파일의 내용 해시 (중복 제거 저장 경로가 아니면 null)
+     */
+    public String contentHashOf(String webPath) {
+        if (webPath == null) {
+            return null;
+        }
+        Matcher matcher = BLOB_KEY.matcher(MediaStore.keyOf(webPath));
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 참조 하나 해제 (마지막 참조면 파일 삭제)
+     * 트랜잭션 안에서 호출되면 이미지 행 삭제가 커밋된 뒤에 해제
+     */
+    public void release(String webPath) {
+        if (webPath == null || webPath.isBlank()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(webPath);
+                }
+            });
+        } else {
+            releaseNow(webPath);
+        }
+    }
+
+    private void releaseNow(String webPath) {
+        String key = MediaStore.keyOf(webPath);
+        String contentHash = contentHashOf(webPath);
+
+        // 중복 제거 이전에 UUID 이름으로 저장된 파일은 참조가 하나뿐이므로 바로 삭제
+        if (contentHash == null) {
+            if (LEGACY_DIRECTORIES.stream().anyMatch(key::startsWith)) {
+                delete(key);
+            }
+            return;
+        }
+
+        try {
+            // 행을 잠근 채 파일까지 삭제하여, 같은 내용의 동시 업로드가 삭제될 파일을 재사용하지 않도록 함
+            transactionTemplate.executeWithoutResult(status -> {
+                MediaBlob blob = mediaBlobMapper.findByHashForUpdate(contentHash);
+                if (blob == null) {
+                    return;
+                }
+                if (blob.getRefCount() > 1) {
+                    mediaBlobMapper.decrementRefCount(contentHash);
+                    return;
+                }
+                if (mediaBlobMapper.deleteLastReference(contentHash) > 0) {
+                    delete(blob.getStorageKey());
+                }
+            });
+        } catch (Exception e) {
+            log.error("미디어 참조 해제 실패: path={}, error={}", webPath, e.getMessage());
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            mediaStore.delete(key);
+            imageVariantService.deleteAll(key);
+            log.info("미디어 파일 삭제: {}", key);
+        } catch (IOException e) {
+            log.error("미디어 파일 삭제 실패: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private static String sha256(InputStream inputStream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** 원본 파일명의 확장자 (".jpg" 형식, 없거나 비정상이면 빈 문자열) **/
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+}
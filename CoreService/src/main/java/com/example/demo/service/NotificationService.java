@@ -22,29 +22,33 @@ public class NotificationService {
 
     public void sendNotification(String receiverEmail, String message, String type, Integer chatroomId, Long productId) {
         try {
-            log.info("알림 전송 시도: 수신자={}, 메시지={}, 타입={}, 채팅방ID={}, 상품ID={}", receiverEmail, message, type, chatroomId, productId);
-            
-            NotificationMessage notification = new NotificationMessage(receiverEmail, message, type, chatroomId, productId);
-
-            // WebSocket을 통해 클라이언트에게 즉시 전송 (먼저 처리)
-            String destination = "/topic/user/" + receiverEmail;
-            messagingTemplate.convertAndSend(destination, notification);
-            log.info("WebSocket으로 알림 전송 완료: destination={}", destination);
-            
-            // 세션 및 연결된 클라이언트 수 확인 (디버깅용)
-            log.info("messagingTemplate: {}", messagingTemplate);
-            
-            try {
-                // Redis Pub/Sub으로 알림 전송 (옵션)
-                redisTemplate.convertAndSend(notificationChannelTopic.getTopic(), notification);
-                log.info("Redis에 알림 발행 완료: topic={}", notificationChannelTopic.getTopic());
-            } catch (Exception redisEx) {
-                // Redis 문제가 있더라도 WebSocket 전송은 계속 진행
-                log.warn("Redis 발행 중 오류 발생 (WebSocket 전송은 완료됨): {}", redisEx.getMessage());
-            }
+            deliverNotification(receiverEmail, message, type, chatroomId, productId);
         } catch (Exception e) {
             log.error("알림 전송 중 오류 발생: {}", e.getMessage(), e);
         }
     }
-}
 
+    /** 알림 전송 (실패하면 예외를 던짐, 재시도가 필요한 아웃박스 처리용) **/
+    public void deliverNotification(String receiverEmail, String message, String type, Integer chatroomId, Long productId) {
+        log.info("알림 전송 시도: 수신자={}, 메시지={}, 타입={}, 채팅방ID={}, 상품ID={}", receiverEmail, message, type, chatroomId, productId);
+
+        NotificationMessage notification = new NotificationMessage(receiverEmail, message, type, chatroomId, productId);
+
+        // WebSocket을 통해 클라이언트에게 즉시 전송 (먼저 처리)
+        String destination = "/topic/user/" + receiverEmail;
+        messagingTemplate.convertAndSend(destination, notification);
+        log.info("WebSocket으로 알림 전송 완료: destination={}", destination);
+
+        // 세션 및 연결된 클라이언트 수 확인 (디버깅용)
+        log.info("messagingTemplate: {}", messagingTemplate);
+
+        try {
+            // Redis Pub/Sub으로 알림 전송 (옵션)
+            redisTemplate.convertAndSend(notificationChannelTopic.getTopic(), notification);
+            log.info("Redis에 알림 발행 완료: topic={}", notificationChannelTopic.getTopic());
+        } catch (Exception redisEx) {
+            // Redis 문제가 있더라도 WebSocket 전송은 완료되었으므로 실패로 보지 않음 (재시도 시 중복 전송 방지)
+            log.warn("Redis 발행 중 오류 발생 (WebSocket 전송은 완료됨): {}", redisEx.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 미디어 전송용 열린 파일 핸들(FileChannel) 캐시
+ * - 자주 요청되는 이미지마다 파일을 다시 열지 않도록 최대 개수/유휴 시간 제한을 두고 보관
+ * - 전송 중인 핸들은 캐시에서 밀려나도 전송이 끝난 뒤에 닫힘 (참조 카운트)
+ */
+@Slf4j
+public class FileChannelCache {
+
+    private final Cache<Path, Handle> handles;
+
+    public FileChannelCache(long maxOpenFiles, Duration idleTimeout) {
+        this.handles = Caffeine.newBuilder()
+                .maximumSize(maxOpenFiles)
+                .expireAfterAccess(idleTimeout)
+                .removalListener((Path path, Handle handle, RemovalCause cause) -> {
+                    if (handle != null) {
+                        handle.release(); // 캐시가 가진 참조 반납
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 파일 핸들 획득 (사용 후 반드시 close)
+     * @param size 현재 파일 크기 (캐시된 핸들이 다른 파일을 가리키면 새로 엶)
+     * @param lastModified 현재 파일 수정 시각
+     */
+    public Handle acquire(Path path, long size, long lastModified) throws IOException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Handle handle = handles.get(path, key -> open(key, size, lastModified));
+            if (handle == null) {
+                break;
+            }
+            if (handle.size != size || handle.lastModified != lastModified) {
+                handles.asMap().remove(path, handle); // 파일이 교체됨
+                continue;
+            }
+            if (handle.retain()) {
+                return handle;
+            }
+            // 방금 캐시에서 밀려나 닫히는 중인 핸들이면 다시 시도
+        }
+
+        // 캐시에 넣지 못한 경우 이번 요청에서만 사용
+        Handle handle = open(path, size, lastModified);
+        if (handle == null) {
+            throw new IOException("파일을 열 수 없습니다: " + path);
+        }
+        return handle;
+    }
+
+    public void clear() {
+        handles.invalidateAll();
+        handles.cleanUp();
+    }
+
+    private Handle open(Path path, long size, long lastModified) {
+        try {
+            return new Handle(FileChannel.open(path, StandardOpenOption.READ), size, lastModified);
+        } catch (IOException e) {
+            log.warn("미디어 파일 열기 실패: {}, error={}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /** 참조 카운트가 있는 파일 핸들 **/
+    public static final class Handle implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+
+        // 캐시 참조(1) + 사용 중인 요청 수, 0 이 되면 닫힘
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Handle(FileChannel channel, long size, long lastModified) {
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public FileChannel channel() {
+            return channel;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 이미 닫힌 채널
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
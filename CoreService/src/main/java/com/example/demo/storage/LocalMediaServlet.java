@@ -0,0 +1,259 @@
+package com.example.demo.storage;
+
+import com.example.demo.util.ImageResponseUtils;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * 로컬 저장소 업로드 미디어 전용 서블릿 ("/uploads/*", "/chat-images/*" 등)
+ * - Tomcat sendfile 을 지원하면 파일 전송을 커넥터에 넘겨 워커 스레드를 즉시 반환 (커널 zero-copy)
+ * - 그 외에는 캐시된 FileChannel 의 transferTo 로 전송
+ * - ETag / Last-Modified 조건부 요청(304)과 단일 Range 요청(206)을 직접 처리
+ */
+@Slf4j
+public class LocalMediaServlet extends HttpServlet {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalMediaStore localMediaStore;
+    private final FileChannelCache channelCache;
+    private final long sendfileThreshold;
+
+    public LocalMediaServlet(LocalMediaStore localMediaStore, FileChannelCache channelCache, long sendfileThreshold) {
+        this.localMediaStore = localMediaStore;
+        this.channelCache = channelCache;
+        this.sendfileThreshold = sendfileThreshold;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, false);
+    }
+
+    @Override
+    public void destroy() {
+        channelCache.clear();
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean sendBody) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = MediaStore.keyOf(UriUtils.decode(path, StandardCharsets.UTF_8));
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+
+        Path file;
+        BasicFileAttributes attributes;
+        try {
+            file = localMediaStore.resolve(key);
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        } catch (NoSuchFileException e) {
+            serveClasspath(key, fileName, response, sendBody);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String eTag = ImageResponseUtils.eTagOf(size, lastModified);
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ImageResponseUtils.cacheControlOf(fileName).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, eTag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(ImageResponseUtils.contentTypeOf(fileName));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+
+        // 전송 범위 [start, end)
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, eTag, lastModified)) {
+            long[] parsed = parseRange(range, size);
+            if (parsed == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+
+        long length = end - start;
+        response.setContentLengthLong(length);
+        if (!sendBody || length == 0) {
+            return;
+        }
+
+        // 커넥터가 sendfile 을 지원하면 파일 경로만 넘기고 워커 스레드 반환
+        if (length >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannelCache.Handle handle = channelCache.acquire(file, size, lastModified)) {
+            transfer(handle.channel(), start, end, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void transfer(FileChannel channel, long start, long end, WritableByteChannel target) throws IOException {
+        long position = start;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                break; // 전송 도중 파일이 잘린 경우
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * 디스크에 없으면 애플리케이션에 포함된 정적 파일(classpath:/static) 으로 대체 (기본 프로필 이미지 등)
+     */
+    private void serveClasspath(String key, String fileName, HttpServletResponse response, boolean sendBody) throws IOException {
+        ClassPathResource resource = new ClassPathResource("static/" + key);
+        if (!resource.isReadable()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType(ImageResponseUtils.contentTypeOf(fileName));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ImageResponseUtils.cacheControlOf(fileName).getHeaderValue());
+        response.setContentLengthLong(resource.contentLength());
+        if (sendBody) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                StreamUtils.copy(inputStream, response.getOutputStream());
+            }
+        }
+    }
+
+    private boolean notModified(HttpServletRequest request, String eTag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, eTag);
+        }
+
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    private boolean rangeApplies(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.trim().equals(eTag); // If-Range 는 강한 비교
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 * 1000 == date;
+    }
+
+    private static boolean matchesETag(String header, String eTag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2); // If-None-Match 는 약한 비교
+            }
+            if (value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * "bytes=a-b", "bytes=a-", "bytes=-n" 형식의 단일 범위 해석
+     * @return {start, end(제외)}, 여러 범위이거나 형식이 다르면 빈 배열(전체 전송), 만족할 수 없으면 null
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(size - suffix, 0);
+                end = size;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size : Math.min(Long.parseLong(last) + 1, size);
+                if (end <= start) {
+                    return start >= size ? null : new long[0];
+                }
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * 로컬 디스크 미디어 저장소 (단일 노드 / 개발 환경용)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "media.store", havingValue = "local", matchIfMissing = true)
+public class LocalMediaStore implements MediaStore {
+
+    private final Path root;
+
+    public LocalMediaStore(@Value("${media.local.root:${user.dir}/src/main/resources/static}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        log.info("Local media store root: {}", this.root);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // 임시 파일에 쓴 뒤 이동하여 읽는 쪽이 쓰다 만 파일을 보지 않도록 함
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public Resource getResource(String key) {
+        // FileSystemResource 는 Range 요청 처리 시 필요한 부분만 읽음
+        return new FileSystemResource(resolve(key));
+    }
+
+    @Override
+    public MediaObject stat(String key) throws IOException {
+        Path path = resolve(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return MediaObject.builder()
+                    .key(key)
+                    .size(attributes.size())
+                    .lastModified(attributes.lastModifiedTime().toMillis())
+                    .build();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<String> presignedUrl(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * key 에 해당하는 로컬 파일 경로 (저장소 루트 밖을 가리키는 key 는 거부)
+     */
+    public Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("유효하지 않은 파일 경로입니다: " + key);
+        }
+        return path;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 저장된 미디어의 메타데이터
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class MediaObject {
+    private final String key;
+    private final long size;           // 크기 (byte)
+    private final long lastModified;   // 마지막 수정 시각 (epoch millis)
+    private final String contentType;  // MIME 타입 (알 수 없으면 null)
+}
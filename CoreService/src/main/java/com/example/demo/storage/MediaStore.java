@@ -0,0 +1,59 @@
+package com.example.demo.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * 업로드 미디어(상품/채팅/게시판/프로필 이미지) 저장소
+ * - key 는 저장소 루트 기준 상대 경로 (예: "uploads/product_a@b.com/product_1/uuid_photo.jpg")
+ *   웹 경로("/uploads/...")에서 맨 앞의 '/' 를 뺀 값과 같음
+ * - media.store=local(기본) 이면 로컬 디스크, media.store=s3 이면 S3 호환 오브젝트 스토리지 사용
+ */
+public interface MediaStore {
+
+    /**
+     * 스트림을 그대로 저장 (내용 전체를 메모리에 올리지 않음)
+     * @param size 내용 길이 (byte)
+     */
+    void put(String key, InputStream content, long size, String contentType) throws IOException;
+
+    /**
+     * 저장된 내용을 스트림으로 조회 (호출자가 닫아야 함)
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * 응답 본문으로 사용할 리소스 조회
+     */
+    Resource getResource(String key) throws IOException;
+
+    /**
+     * 메타데이터 조회 (없으면 null)
+     */
+    MediaObject stat(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key) != null;
+    }
+
+    /**
+     * 삭제 (삭제된 경우 true)
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * 클라이언트가 서버를 거치지 않고 직접 내려받을 수 있는 서명 URL
+     * 로컬 저장소처럼 지원하지 않으면 empty
+     */
+    Optional<String> presignedUrl(String key);
+
+    /**
+     * 웹 경로("/uploads/...")를 저장소 key 로 변환
+     */
+    static String keyOf(String webPath) {
+        return webPath.startsWith("/") ? webPath.substring(1) : webPath;
+    }
+}
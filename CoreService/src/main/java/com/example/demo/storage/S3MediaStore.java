@@ -0,0 +1,153 @@
+package com.example.demo.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * S3 호환 오브젝트 스토리지 미디어 저장소 (AWS S3, MinIO 등)
+ * - 여러 CoreService 노드가 같은 버킷을 공유하므로 로컬 디스크에 묶이지 않음
+ * - 조회는 서명 URL 로 리다이렉트하여 JVM 을 거치지 않고 스토리지에서 직접 내려받음
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "media.store", havingValue = "s3")
+public class S3MediaStore implements MediaStore {
+
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final Duration presignTtl;
+
+    public S3MediaStore(@Value("${media.s3.endpoint:}") String endpoint,
+                        @Value("${media.s3.region:ap-northeast-2}") String region,
+                        @Value("${media.s3.bucket}") String bucket,
+                        @Value("${media.s3.access-key}") String accessKey,
+                        @Value("${media.s3.secret-key}") String secretKey,
+                        @Value("${media.s3.path-style-access:true}") boolean pathStyleAccess,
+                        @Value("${media.s3.presign-ttl-minutes:10}") long presignTtlMinutes) {
+        StaticCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3Configuration configuration = S3Configuration.builder()
+                .pathStyleAccessEnabled(pathStyleAccess) // MinIO 는 path-style 주소 사용
+                .build();
+
+        var clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        var presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        if (endpoint != null && !endpoint.isBlank()) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+
+        this.s3Client = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+        this.bucket = bucket;
+        this.presignTtl = Duration.ofMinutes(presignTtlMinutes);
+        log.info("S3 media store: endpoint={}, bucket={}", endpoint, bucket);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        presigner.close();
+        s3Client.close();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength(size)
+                            .build(),
+                    RequestBody.fromInputStream(content, size));
+        } catch (S3Exception e) {
+            throw new IOException("미디어 저장 실패: " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (S3Exception e) {
+            throw new IOException("미디어 조회 실패: " + key, e);
+        }
+    }
+
+    @Override
+    public Resource getResource(String key) throws IOException {
+        return new InputStreamResource(get(key));
+    }
+
+    @Override
+    public MediaObject stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return MediaObject.builder()
+                    .key(key)
+                    .size(head.contentLength())
+                    .lastModified(head.lastModified().toEpochMilli())
+                    .contentType(head.contentType())
+                    .build();
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw new IOException("미디어 조회 실패: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (S3Exception e) {
+            throw new IOException("미디어 삭제 실패: " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<String> presignedUrl(String key) {
+        GetObjectPresignRequest request = GetObjectPresignRequest.builder()
+                .signatureDuration(presignTtl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+                .build();
+        return Optional.of(presigner.presignGetObject(request).url().toString());
+    }
+}
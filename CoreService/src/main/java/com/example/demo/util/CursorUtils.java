@@ -0,0 +1,50 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 커서(keyset) 페이지네이션용 커서 토큰 인코딩/디코딩 유틸리티 클래스
+ * 정렬 키 값들을 '|' 로 이어 붙인 뒤 URL-safe Base64 로 인코딩합니다.
+ */
+public class CursorUtils {
+
+    private static final String DELIMITER = "|";
+
+    /**
+     * 정렬 키 값들로 커서 토큰을 생성합니다.
+     * @param parts 커서를 구성하는 값 (예: 정렬 기준, 정렬 값, ID)
+     * @return 커서 토큰
+     */
+    public static String encode(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(DELIMITER);
+            }
+            sb.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 커서 토큰을 정렬 키 값들로 복원합니다.
+     * @param cursor 커서 토큰
+     * @param expectedParts 기대하는 값 개수
+     * @return 정렬 키 값 배열
+     * @throws IllegalArgumentException 형식이 올바르지 않은 커서인 경우
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("유효하지 않은 커서입니다.");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("유효하지 않은 커서입니다.");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.util;
+
+/**
+ * 위치 기반 검색을 위한 좌표 계산 유틸리티 클래스
+ */
+public class GeoUtils {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_LATITUDE_DEGREE = 111.045;
+
+    /**
+     * 중심 좌표와 반경(km)을 감싸는 위도/경도 사각형 범위를 계산합니다.
+     * 인덱스가 걸린 latitude/longitude 컬럼으로 후보를 먼저 좁히는 용도입니다.
+     * @param latitude 중심 위도
+     * @param longitude 중심 경도
+     * @param distanceKm 반경 (km)
+     * @return {최소 위도, 최대 위도, 최소 경도, 최대 경도}
+     */
+    public static double[] boundingBox(double latitude, double longitude, double distanceKm) {
+        double latitudeDelta = distanceKm / KM_PER_LATITUDE_DEGREE;
+
+        // 고위도에서 cos 값이 0에 가까워지는 경우를 대비해 하한을 둠
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double longitudeDelta = distanceKm / (KM_PER_LATITUDE_DEGREE * cosLatitude);
+
+        return new double[] {
+                Math.max(latitude - latitudeDelta, -90.0),
+                Math.min(latitude + latitudeDelta, 90.0),
+                Math.max(longitude - longitudeDelta, -180.0),
+                Math.min(longitude + longitudeDelta, 180.0)
+        };
+    }
+
+    /**
+     * 두 좌표 사이의 거리(km)를 하버사인 공식으로 계산합니다.
+     * @return 거리 (km)
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLng = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.util;
+
+import com.example.demo.storage.MediaObject;
+import com.example.demo.storage.MediaStore;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 이미지 파일 응답 생성 유틸리티 클래스
+ * ETag / Last-Modified / Cache-Control 헤더를 붙여 반환합니다.
+ * If-None-Match / If-Modified-Since 에 대한 304 응답과 Range 요청(206)은
+ * ResponseEntity&lt;Resource&gt; 를 처리하는 Spring MVC 에서 이 헤더를 기준으로 처리됩니다.
+ */
+public class ImageResponseUtils {
+
+    // 업로드 시 UUID 또는 내용 해시(SHA-256)가 붙은 파일명은 내용이 바뀌지 않으므로 1년 동안 캐시
+    private static final Pattern IMMUTABLE_FILE_NAME =
+            Pattern.compile(".*([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-f]{64}).*");
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+    /**
+     * 저장소의 이미지 응답 생성
+     * - 서명 URL 을 지원하는 저장소(S3 등)는 해당 URL 로 리다이렉트하여 JVM 을 거치지 않고 내려받도록 함
+     * - 그 외에는 파일 내용을 캐시 헤더와 함께 반환
+     * @param key 저장소 key
+     * @param contentType 저장된 MIME 타입 (null 이면 파일 확장자로 결정)
+     * @return 파일이 없으면 404
+     */
+    public static ResponseEntity<Resource> imageResponse(MediaStore mediaStore, String key, String contentType) throws IOException {
+        MediaObject media = mediaStore.stat(key);
+        if (media == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<String> presignedUrl = mediaStore.presignedUrl(key);
+        if (presignedUrl.isPresent()) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(presignedUrl.get()))
+                    .cacheControl(CacheControl.noStore()) // 서명 URL 은 만료되므로 리다이렉트 응답은 캐시하지 않음
+                    .build();
+        }
+
+        String fileName = key.substring(key.lastIndexOf('/') + 1);
+        return ResponseEntity.ok()
+                .contentType(resolveContentType(fileName, contentType != null ? contentType : media.getContentType()))
+                .eTag(eTagOf(media.getSize(), media.getLastModified()))
+                .lastModified(media.getLastModified())
+                .cacheControl(cacheControlOf(fileName))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
+                .body(mediaStore.getResource(key));
+    }
+
+    /**
+     * 파일 크기 + 수정 시각으로 만든 강한 ETag (따옴표 포함)
+     */
+    public static String eTagOf(long size, long lastModified) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * 파일명에 따른 캐시 정책 (UUID 나 내용 해시가 포함된 업로드 파일은 immutable)
+     */
+    public static CacheControl cacheControlOf(String fileName) {
+        return IMMUTABLE_FILE_NAME.matcher(fileName).matches() ? IMMUTABLE : REVALIDATE;
+    }
+
+    /**
+     * 파일 확장자로 MIME 타입 결정 (디스크를 읽지 않음)
+     */
+    public static String contentTypeOf(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    private static MediaType resolveContentType(String fileName, String contentType) {
+        if (contentType != null && !contentType.isBlank()) {
+            try {
+                return MediaType.parseMediaType(contentType);
+            } catch (Exception ignored) {
+                // 잘못 저장된 값이면 확장자로 결정
+            }
+        }
+        return MediaType.parseMediaType(contentTypeOf(fileName));
+    }
+}
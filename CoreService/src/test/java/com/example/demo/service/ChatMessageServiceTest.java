@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.chat.ChatMessagesResponse;
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.mapper.ChatRoomMapper;
+import com.example.demo.mapper.UserMapper;
+import com.example.demo.model.Market.Product;
+import com.example.demo.model.chat.ChatMessage;
+import com.example.demo.model.chat.ChatRoom;
+import com.example.demo.service.Market.ProductDetailCache;
+import com.example.demo.storage.MediaStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChatMessageServiceTest {
+
+    private static final Integer CHATROOM_ID = 1;
+    private static final String SELLER = "seller@example.com";
+    private static final String BUYER = "buyer@example.com";
+
+    private ChatMessageMapper chatMessageMapper;
+    private ChatRoomMapper chatRoomMapper;
+    private ChatUnreadCounter chatUnreadCounter;
+    private ChatRecentMessageCache chatRecentMessageCache;
+    private ChatMessageWriteBehind chatMessageWriteBehind;
+    private ChatMessageService chatMessageService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        chatMessageMapper = mock(ChatMessageMapper.class);
+        chatRoomMapper = mock(ChatRoomMapper.class);
+        chatUnreadCounter = mock(ChatUnreadCounter.class);
+        chatRecentMessageCache = mock(ChatRecentMessageCache.class);
+        chatMessageWriteBehind = mock(ChatMessageWriteBehind.class);
+        ProductDetailCache productDetailCache = mock(ProductDetailCache.class);
+
+        chatMessageService = new ChatMessageService(
+                chatMessageMapper,
+                chatRoomMapper,
+                productDetailCache,
+                mock(UserMapper.class),
+                mock(RedisTemplate.class),
+                mock(MediaStore.class),
+                chatUnreadCounter,
+                chatMessageWriteBehind,
+                chatRecentMessageCache,
+                new ChannelTopic("chat"));
+        ReflectionTestUtils.setField(chatMessageService, "defaultPageSize", 20);
+
+        when(chatRoomMapper.findChatRoomById(CHATROOM_ID, BUYER)).thenReturn(ChatRoom.builder()
+                .chatroomId(CHATROOM_ID)
+                .productId(10L)
+                .requestEmail(BUYER)
+                .messageCount(100)
+                .build());
+        when(productDetailCache.findById(10L, BUYER)).thenReturn(Product.builder().id(10L).email(SELLER).build());
+    }
+
+    @Test
+    void rejectsBeforeAndAfterTogether() {
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, 50, 10);
+
+        assertThat(response.isSuccess()).isFalse();
+        verifyNoInteractions(chatRoomMapper, chatMessageMapper, chatUnreadCounter);
+    }
+
+    @Test
+    void afterPageWithMoreMessagesDoesNotMarkRead() {
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, null, 10, 3)).thenReturn(messages(11, 12, 13));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, 10);
+
+        assertThat(ids(response)).containsExactly(11, 12);
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.getNewestMessageId()).isEqualTo(12);
+        verify(chatUnreadCounter, never()).markRead(any(), any());
+    }
+
+    @Test
+    void lastAfterPageMarksRead() {
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, null, 10, 3)).thenReturn(messages(11, 12));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, 10);
+
+        assertThat(ids(response)).containsExactly(11, 12);
+        assertThat(response.isHasMore()).isFalse();
+        verify(chatUnreadCounter).markRead(CHATROOM_ID, BUYER);
+    }
+
+    @Test
+    void afterPageIncludesMessagesStillWaitingToBeSaved() {
+        // 11 은 저장 대기 중(pending)이고 그 뒤 메시지 12, 13 은 이미 DB 에 저장됨
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(messages(11, 14));
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, null, 10, 3)).thenReturn(messages(12, 13));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, 10);
+
+        assertThat(ids(response)).containsExactly(11, 12);
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.getNewestMessageId()).isEqualTo(12);
+    }
+
+    @Test
+    void afterPageIgnoresUnsavedMessagesOfOtherRoomsAndDuplicates() {
+        List<ChatMessage> unsaved = messages(12);
+        unsaved.add(ChatMessage.builder().messageId(11).chatroomId(2).senderEmail(BUYER).content("other").build());
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(unsaved);
+        // 12 는 Stream 을 읽은 직후 저장됨
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, null, 10, 3)).thenReturn(messages(12));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, 10);
+
+        assertThat(ids(response)).containsExactly(12);
+        assertThat(response.isHasMore()).isFalse();
+    }
+
+    @Test
+    void beforePageReturnsOlderMessagesOldestFirstWithoutMarkingRead() {
+        // before 조회는 최신순으로 한 건 더 읽음
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, 50, null, 3)).thenReturn(messages(49, 48, 47));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, 50, null);
+
+        assertThat(ids(response)).containsExactly(48, 49);
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.getOldestMessageId()).isEqualTo(48);
+        verify(chatUnreadCounter, never()).markRead(any(), any());
+    }
+
+    @Test
+    void firstPageFromDatabaseKeepsNewestMessages() {
+        when(chatRecentMessageCache.findRecentMessages(CHATROOM_ID, 3)).thenReturn(null);
+        when(chatMessageMapper.findMessagesByCursor(CHATROOM_ID, null, null, 3)).thenReturn(messages(30, 29, 28));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, null);
+
+        assertThat(ids(response)).containsExactly(29, 30);
+        assertThat(response.isHasMore()).isTrue();
+        verify(chatUnreadCounter).markRead(CHATROOM_ID, BUYER);
+    }
+
+    @Test
+    void firstPageFromCacheKeepsNewestMessagesAndDerivesReadStatus() {
+        // 캐시는 오래된 순
+        when(chatRecentMessageCache.findRecentMessages(CHATROOM_ID, 3)).thenReturn(messages(28, 29, 30));
+        when(chatUnreadCounter.getReadWatermarks(CHATROOM_ID)).thenReturn(Map.of(SELLER, 29, BUYER, 30));
+
+        ChatMessagesResponse response = chatMessageService.getChatMessages(CHATROOM_ID, BUYER, null, 2, null, null);
+
+        assertThat(ids(response)).containsExactly(29, 30);
+        assertThat(response.isHasMore()).isTrue();
+        // 구매자가 보낸 메시지는 판매자의 읽음 위치(29) 기준
+        assertThat(response.getMessages().get(0).isRead()).isTrue();
+        assertThat(response.getMessages().get(1).isRead()).isFalse();
+        verify(chatMessageMapper, never()).findMessagesByCursor(any(), any(), any(), anyInt());
+        verify(chatUnreadCounter).markRead(CHATROOM_ID, BUYER);
+    }
+
+    private static List<ChatMessage> messages(Integer... messageIds) {
+        return new ArrayList<>(Arrays.stream(messageIds)
+                .map(messageId -> ChatMessage.builder()
+                        .messageId(messageId)
+                        .chatroomId(CHATROOM_ID)
+                        .senderEmail(BUYER)
+                        .content("message " + messageId)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private static List<Integer> ids(ChatMessagesResponse response) {
+        return response.getMessages().stream().map(ChatMessage::getMessageId).collect(Collectors.toList());
+    }
+}
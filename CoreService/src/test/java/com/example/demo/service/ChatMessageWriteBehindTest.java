@@ -0,0 +1,226 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.mapper.ChatRoomMapper;
+import com.example.demo.model.chat.ChatMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChatMessageWriteBehindTest {
+
+    private static final String STREAM_KEY = "chat:messages:stream";
+    private static final String DEAD_LETTER_KEY = "chat:messages:dead";
+    private static final String GROUP = "chat-message-writer";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StringRedisTemplate stringRedisTemplate;
+    private StreamOperations<String, Object, Object> streamOperations;
+    private ChatMessageMapper chatMessageMapper;
+    private ChatRoomMapper chatRoomMapper;
+    private ChatMessageWriteBehind writeBehind;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        streamOperations = mock(StreamOperations.class);
+        doReturn(streamOperations).when(stringRedisTemplate).opsForStream();
+        chatMessageMapper = mock(ChatMessageMapper.class);
+        chatRoomMapper = mock(ChatRoomMapper.class);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        writeBehind = new ChatMessageWriteBehind(
+                stringRedisTemplate, chatMessageMapper, chatRoomMapper, objectMapper, transactionManager);
+    }
+
+    @Test
+    void savesBatchAndAcknowledges() throws Exception {
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of());
+
+        writeBehind.write(List.of(record(1, message(1, "hello")), record(2, message(1, "world"))));
+
+        verify(chatMessageMapper).insertChatMessages(anyList());
+        verify(chatRoomMapper).applyFlushedMessages(eq(1), eq(2), eq("world"), any(), eq(2));
+        verify(streamOperations).acknowledge(eq(STREAM_KEY), eq(GROUP), any(RecordId[].class));
+        verify(streamOperations, never()).add(eq(DEAD_LETTER_KEY), anyMap());
+    }
+
+    @Test
+    void leavesEntriesPendingWhenDatabaseIsUnavailable() throws Exception {
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of());
+        doThrow(new DataAccessResourceFailureException("connection refused"))
+                .when(chatMessageMapper).insertChatMessages(anyList());
+
+        writeBehind.write(List.of(record(1, message(1, "hello")), record(2, message(1, "world"))));
+
+        // 한 건씩 재시도하거나 dead letter 로 옮기지 않고 pending 으로 남김
+        verify(chatMessageMapper, times(1)).insertChatMessages(anyList());
+        verifyNoInteractions(streamOperations);
+    }
+
+    @Test
+    void leavesEntriesPendingOnQueryTimeout() throws Exception {
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of());
+        doThrow(new QueryTimeoutException("lock wait timeout"))
+                .when(chatMessageMapper).insertChatMessages(anyList());
+
+        writeBehind.write(List.of(record(1, message(1, "hello"))));
+
+        verifyNoInteractions(streamOperations);
+    }
+
+    @Test
+    void skipsMessagesAlreadySavedByReplay() throws Exception {
+        ChatMessage saved = message(1, "hello");
+        saved.setMessageId(1);
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of(saved));
+
+        writeBehind.write(List.of(record(1, message(1, "hello"))));
+
+        verify(chatMessageMapper, never()).insertChatMessages(anyList());
+        verify(streamOperations).acknowledge(eq(STREAM_KEY), eq(GROUP), any(RecordId[].class));
+        verify(streamOperations, never()).add(eq(DEAD_LETTER_KEY), anyMap());
+    }
+
+    @Test
+    void movesCollidingMessageIdToDeadLetterAndReseeds() throws Exception {
+        ChatMessage other = message(2, "someone else");
+        other.setMessageId(1);
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of(other));
+        when(chatMessageMapper.findMaxMessageId()).thenReturn(100);
+
+        writeBehind.write(List.of(record(1, message(1, "hello"))));
+
+        verify(chatMessageMapper, never()).insertChatMessages(anyList());
+        verify(chatMessageMapper, atLeastOnce()).findMaxMessageId();
+        verify(streamOperations).add(eq(DEAD_LETTER_KEY), anyMap());
+    }
+
+    @Test
+    void retriesOneByOneAndDeadLettersOnlyIntegrityViolations() throws Exception {
+        when(chatMessageMapper.findMessagesByIds(anyList())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.getMessageId() == 2)) {
+                throw new DataIntegrityViolationException("foreign key");
+            }
+            return null;
+        }).when(chatMessageMapper).insertChatMessages(anyList());
+
+        writeBehind.write(List.of(record(1, message(1, "hello")), record(2, message(99, "orphan"))));
+
+        verify(chatMessageMapper, times(3)).insertChatMessages(anyList());
+        verify(streamOperations, times(1)).add(eq(DEAD_LETTER_KEY), anyMap());
+    }
+
+    @Test
+    void deadLettersUnparseableEntries() {
+        Map<Object, Object> body = new HashMap<>();
+        body.put("id", "1");
+        body.put("payload", "{not json");
+        MapRecord<String, Object, Object> broken = MapRecord.create(STREAM_KEY, body).withId(RecordId.of("1-0"));
+
+        writeBehind.write(List.of(broken));
+
+        verify(streamOperations).add(eq(DEAD_LETTER_KEY), anyMap());
+    }
+
+    @Test
+    void appendReseedsCounterWhenRedisWasReset() {
+        when(chatMessageMapper.findMaxMessageId()).thenReturn(10);
+        AtomicInteger appendCalls = new AtomicInteger();
+        doAnswer(invocation -> {
+            RedisScript<?> script = invocation.getArgument(0);
+            if (!script.getScriptAsString().contains("XADD")) {
+                return 10L; // 카운터 초기화
+            }
+            // 첫 호출은 카운터가 없어서 발급하지 않음
+            return appendCalls.incrementAndGet() == 1 ? -1L : 11L;
+        }).when(stringRedisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        ChatMessage message = writeBehind.append(message(1, "hello"));
+
+        assertThat(message.getMessageId()).isEqualTo(11);
+        assertThat(appendCalls.get()).isEqualTo(2);
+        verify(chatMessageMapper).findMaxMessageId();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findsUnsavedMessagesFromStreamAndSkipsBrokenEntries() throws Exception {
+        Map<Object, Object> broken = new HashMap<>();
+        broken.put("id", "3");
+        broken.put("payload", "{not json");
+        when(streamOperations.range(eq(STREAM_KEY), any(Range.class), any(Limit.class))).thenReturn(List.of(
+                record(1, message(1, "hello")),
+                MapRecord.create(STREAM_KEY, broken).withId(RecordId.of("3-0")),
+                record(2, message(2, "world"))));
+
+        List<ChatMessage> unsaved = writeBehind.findUnsavedMessages();
+
+        assertThat(unsaved).extracting(ChatMessage::getMessageId).containsExactly(1, 2);
+        assertThat(unsaved).extracting(ChatMessage::getChatroomId).containsExactly(1, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findsNoUnsavedMessagesWhenRedisFails() {
+        when(streamOperations.range(eq(STREAM_KEY), any(Range.class), any(Limit.class)))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        assertThat(writeBehind.findUnsavedMessages()).isEmpty();
+    }
+
+    private ChatMessage message(Integer chatroomId, String content) {
+        return ChatMessage.builder()
+                .chatroomId(chatroomId)
+                .senderEmail("sender@example.com")
+                .content(content)
+                .messageType("TEXT")
+                .build();
+    }
+
+    private MapRecord<String, Object, Object> record(int messageId, ChatMessage message) throws Exception {
+        Map<Object, Object> body = new HashMap<>();
+        body.put("id", String.valueOf(messageId));
+        body.put("payload", objectMapper.writeValueAsString(message));
+        return MapRecord.create(STREAM_KEY, body).withId(RecordId.of(messageId + "-0"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.ChatMessageMapper;
+import com.example.demo.model.chat.ChatMessage;
+import com.example.demo.model.chat.ChatReadStatus;
+import com.example.demo.model.chat.ChatRoom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChatUnreadCounterTest {
+
+    private static final String BUYER = "buyer@example.com";
+    private static final String SELLER = "seller@example.com";
+    private static final String KEY = "chat:unread:" + BUYER;
+
+    private StringRedisTemplate stringRedisTemplate;
+    private HashOperations<String, Object, Object> hashOperations;
+    private ChatMessageMapper chatMessageMapper;
+    private ChatMessageWriteBehind chatMessageWriteBehind;
+    private ChatUnreadCounter counter;
+
+    // INIT 스크립트 결과 (마지막 메시지 ID, 이미 있으면 -1)
+    private long initResult = 20L;
+    // MERGE 스크립트 결과 (계산 중 만료되었으면 0)
+    private long mergeResult = 1L;
+    private final List<String> mergedArgs = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        hashOperations = mock(HashOperations.class);
+        doReturn(hashOperations).when(stringRedisTemplate).opsForHash();
+        when(hashOperations.entries(anyString())).thenReturn(Map.of());
+        chatMessageMapper = mock(ChatMessageMapper.class);
+        chatMessageWriteBehind = mock(ChatMessageWriteBehind.class);
+
+        doAnswer(invocation -> {
+            RedisScript<?> script = invocation.getArgument(0);
+            if (script.getScriptAsString().contains("'EXISTS'")) {
+                return initResult;
+            }
+            Object[] arguments = invocation.getArguments();
+            Arrays.stream(arguments, 2, arguments.length).map(String::valueOf).forEach(mergedArgs::add);
+            return mergeResult;
+        }).when(stringRedisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        counter = new ChatUnreadCounter(stringRedisTemplate, chatMessageMapper, chatMessageWriteBehind);
+        ReflectionTestUtils.setField(counter, "ttlHours", 24L);
+    }
+
+    @Test
+    void rebuildMergesMessagesIssuedBeforeCounterWasCreated() {
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(List.of(
+                message(11, 1, SELLER),
+                message(12, 1, BUYER),   // 내가 보낸 메시지
+                message(13, 3, SELLER),  // 참여하지 않은 채팅방
+                message(4, 1, SELLER),   // 이미 읽은 위치 이전
+                message(21, 1, SELLER))); // 카운터 생성 후 발급 (increment 로 반영)
+        when(chatMessageMapper.countUnreadMessagesByUser(BUYER, 20, List.of(11, 13, 4))).thenReturn(List.of(
+                ChatRoom.builder().chatroomId(1).unreadCount(2).build()));
+        when(chatMessageMapper.findReadPositionsByUser(BUYER, Set.of(1, 3))).thenReturn(List.of(
+                ChatReadStatus.builder().chatroomId(1).email(BUYER).lastReadMessageId(5).build()));
+
+        counter.getUnreadCounts(BUYER);
+
+        // 보관 시간 + (채팅방 1, DB 2건 + 저장 대기 1건)
+        assertThat(mergedArgs).containsExactly(String.valueOf(24 * 3600), "1", "3");
+    }
+
+    @Test
+    void rebuildWithoutMessageIdCounterCountsEverything() {
+        initResult = 0L;
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(List.of());
+        when(chatMessageMapper.countUnreadMessagesByUser(BUYER, null, List.of())).thenReturn(List.of(
+                ChatRoom.builder().chatroomId(1).unreadCount(2).build()));
+
+        counter.getUnreadCounts(BUYER);
+
+        assertThat(mergedArgs).containsExactly(String.valueOf(24 * 3600), "1", "2");
+    }
+
+    @Test
+    void concurrentRebuildReadsCounterCreatedByOtherRequest() {
+        initResult = -1L;
+        when(hashOperations.entries(KEY)).thenReturn(Map.of(), Map.of("1", "4", "total", "4"));
+
+        assertThat(counter.getUnreadCounts(BUYER)).containsExactly(Map.entry(1, 4));
+        verifyNoInteractions(chatMessageMapper);
+    }
+
+    @Test
+    void countsIgnoreLoadingMarkers() {
+        when(hashOperations.entries(KEY)).thenReturn(Map.of("1", "4", "total", "4", "loading", "1", "reset:2", "1"));
+
+        assertThat(counter.getUnreadCounts(BUYER)).containsExactly(Map.entry(1, 4));
+    }
+
+    @Test
+    void returnsComputedCountsWhenCounterExpiredWhileLoading() {
+        mergeResult = 0L;
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(List.of());
+        when(chatMessageMapper.countUnreadMessagesByUser(BUYER, 20, List.of())).thenReturn(List.of(
+                ChatRoom.builder().chatroomId(1).unreadCount(2).build()));
+
+        assertThat(counter.getUnreadCounts(BUYER)).containsExactly(Map.entry(1, 2));
+    }
+
+    @Test
+    void removesEmptyCounterWhenDatabaseFails() {
+        when(chatMessageWriteBehind.findUnsavedMessages()).thenReturn(List.of());
+        when(chatMessageMapper.countUnreadMessagesByUser(BUYER, 20, List.of()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(() -> counter.getUnreadCounts(BUYER)).isInstanceOf(QueryTimeoutException.class);
+        verify(stringRedisTemplate).delete(KEY);
+        assertThat(mergedArgs).isEmpty();
+        verify(hashOperations, never()).putAll(anyString(), any());
+    }
+
+    private static ChatMessage message(int messageId, int chatroomId, String senderEmail) {
+        return ChatMessage.builder()
+                .messageId(messageId)
+                .chatroomId(chatroomId)
+                .senderEmail(senderEmail)
+                .content("message " + messageId)
+                .build();
+    }
+}
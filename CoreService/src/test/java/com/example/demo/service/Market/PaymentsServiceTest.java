@@ -0,0 +1,87 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.dto.Market.PaymentsRequest;
+import com.example.demo.dto.Market.PaymentsResponse;
+import com.example.demo.mapper.Market.PaymentsMapper;
+import com.example.demo.mapper.Market.TransactionsMapper;
+import com.example.demo.util.BaseResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentsServiceTest {
+
+    private PaymentsMapper paymentsMapper;
+    private TransactionsMapper transactionsMapper;
+    private PaymentsService paymentsService;
+
+    @BeforeEach
+    void setUp() {
+        paymentsMapper = mock(PaymentsMapper.class);
+        transactionsMapper = mock(TransactionsMapper.class);
+        paymentsService = new PaymentsService(paymentsMapper, transactionsMapper);
+    }
+
+    @Test
+    void firstRequestIsAppliedToTransaction() {
+        PaymentsRequest request = request("key-1");
+        when(paymentsMapper.insertPayment(request)).thenReturn(1);
+        when(transactionsMapper.addPaidAmount(7L, 5000)).thenReturn(1);
+
+        ResponseEntity<BaseResponse<PaymentsResponse>> response = paymentsService.createPayment(request);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        verify(transactionsMapper).addPaidAmount(7L, 5000);
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyReturnsFirstPaymentWithoutChargingAgain() {
+        PaymentsRequest request = request("key-1");
+        PaymentsResponse existing = PaymentsResponse.builder()
+                .id(3L)
+                .transactionId(7L)
+                .amount(5000)
+                .idempotencyKey("key-1")
+                .build();
+        when(paymentsMapper.insertPayment(request)).thenThrow(new DuplicateKeyException("uk_payments_idempotency"));
+        when(paymentsMapper.findPaymentByIdempotencyKey(7L, "key-1")).thenReturn(existing);
+
+        ResponseEntity<BaseResponse<PaymentsResponse>> response = paymentsService.createPayment(request);
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getBody().getData().getId()).isEqualTo(3L);
+        verify(transactionsMapper, never()).addPaidAmount(anyLong(), anyInt());
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotTreatedAsRetries() {
+        PaymentsRequest request = request("key-1");
+        when(paymentsMapper.insertPayment(request)).thenThrow(new DataIntegrityViolationException("foreign key"));
+
+        assertThatThrownBy(() -> paymentsService.createPayment(request))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(paymentsMapper, never()).findPaymentByIdempotencyKey(any(), any());
+        verify(transactionsMapper, never()).addPaidAmount(anyLong(), anyInt());
+    }
+
+    private static PaymentsRequest request(String idempotencyKey) {
+        return PaymentsRequest.builder()
+                .transactionId(7L)
+                .amount(5000)
+                .paymentMethod("CARD")
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+}
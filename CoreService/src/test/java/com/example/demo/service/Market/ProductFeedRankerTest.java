@@ -0,0 +1,211 @@
+package com.example.demo.service.Market;
+
+import com.example.demo.dto.Market.ProductResponse;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.mapper.Market.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductFeedRankerTest {
+
+    private static final String ALL_KEY = "market:feed:all";
+    private static final String KEYS_KEY = "market:feed:keys";
+    private static final int PRODUCT_COUNT = 10;
+    private static final int MAX_CANDIDATES = 6;
+
+    // 기본 점수 순서: 1, 2, ..., 10
+    private final List<Long> baseOrder = LongStream.rangeClosed(1, PRODUCT_COUNT).boxed().collect(Collectors.toList());
+
+    private ProductMapper productMapper;
+    private StringRedisTemplate stringRedisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private SetOperations<String, String> setOperations;
+    private NearbyProductIndex nearbyProductIndex;
+    private ProductFeedRanker ranker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        doReturn(zSetOperations).when(stringRedisTemplate).opsForZSet();
+        setOperations = mock(SetOperations.class);
+        doReturn(setOperations).when(stringRedisTemplate).opsForSet();
+        nearbyProductIndex = mock(NearbyProductIndex.class);
+
+        ranker = new ProductFeedRanker(productMapper, stringRedisTemplate, nearbyProductIndex);
+        ReflectionTestUtils.setField(ranker, "refreshMinutes", 5L);
+        ReflectionTestUtils.setField(ranker, "recencyHalfLifeHours", 48.0);
+        ReflectionTestUtils.setField(ranker, "recencyWeight", 0.5);
+        ReflectionTestUtils.setField(ranker, "dopamineWeight", 0.2);
+        ReflectionTestUtils.setField(ranker, "capacityWeight", 0.3);
+        ReflectionTestUtils.setField(ranker, "distanceWeight", 0.3);
+        ReflectionTestUtils.setField(ranker, "distanceScaleKm", 5.0);
+        ReflectionTestUtils.setField(ranker, "maxCandidates", MAX_CANDIDATES);
+
+        when(zSetOperations.reverseRange(eq(ALL_KEY), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            Set<String> members = new LinkedHashSet<>();
+            for (long i = start; i <= end && i < PRODUCT_COUNT; i++) {
+                members.add(String.valueOf(baseOrder.get((int) i)));
+            }
+            return members;
+        });
+        when(zSetOperations.reverseRangeWithScores(eq(ALL_KEY), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            Set<TypedTuple<String>> tuples = new LinkedHashSet<>();
+            for (long i = start; i <= end && i < PRODUCT_COUNT; i++) {
+                tuples.add(new DefaultTypedTuple<>(String.valueOf(baseOrder.get((int) i)), 1.0 - i * 0.01));
+            }
+            return tuples;
+        });
+    }
+
+    @Test
+    void distanceRerankedPagesNeitherRepeatNorSkipProducts() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(true);
+        // 후보 범위 마지막 상품만 조회자 근처에 있음 (거리 점수로 맨 앞으로 이동, 나머지는 위치 정보 없음)
+        when(nearbyProductIndex.distanceKm(anyLong(), anyDouble(), anyDouble())).thenReturn(null);
+        when(nearbyProductIndex.distanceKm(eq(6L), anyDouble(), anyDouble())).thenReturn(0.0);
+
+        List<Long> pages = new ArrayList<>();
+        for (int offset = 0; offset < PRODUCT_COUNT; offset += 4) {
+            pages.addAll(ranker.findRankedProductIds(null, 37.5, 127.0, offset, 4));
+        }
+
+        assertThat(pages).containsExactly(6L, 1L, 2L, 3L, 4L, 5L, 7L, 8L, 9L, 10L);
+        // 어느 페이지든 같은 후보 범위를 정렬
+        verify(zSetOperations, times(2)).reverseRangeWithScores(ALL_KEY, 0, MAX_CANDIDATES - 1L);
+    }
+
+    @Test
+    void pagesWithoutLocationFollowBaseOrder() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(true);
+
+        assertThat(ranker.findRankedProductIds(null, null, null, 4, 4)).containsExactly(5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void fallsBackToLatestProductsUntilFeedIsBuilt() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(false);
+        when(productMapper.findLatestVisibleProductIds(null, 0, 4)).thenReturn(List.of(3L, 2L, 1L));
+        when(productMapper.countVisibleProducts(null)).thenReturn(3);
+
+        assertThat(ranker.findRankedProductIds(null, 37.5, 127.0, 0, 4)).containsExactly(3L, 2L, 1L);
+        assertThat(ranker.countRankedProducts(null)).isEqualTo(3);
+        // 요청 스레드에서 재계산하지 않음
+        verify(productMapper, never()).findFeedCandidates();
+    }
+
+    @Test
+    void concurrentRebuildsUseDistinctTemporaryKeys() {
+        when(productMapper.findFeedCandidates()).thenReturn(List.of(ProductResponse.builder()
+                .id(1L)
+                .categoryId(2L)
+                .createdAt(LocalDateTime.now())
+                .maxParticipants(4)
+                .currentParticipants(1)
+                .dopamine(50)
+                .build()));
+
+        ranker.rebuild();
+        ranker.rebuild();
+
+        ArgumentCaptor<String> tempKeys = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, times(4)).rename(tempKeys.capture(), anyString());
+        List<String> allTempKeys = tempKeys.getAllValues().stream()
+                .filter(key -> key.startsWith(ALL_KEY + ":rebuild:"))
+                .collect(Collectors.toList());
+        assertThat(allTempKeys).hasSize(2);
+        assertThat(allTempKeys.get(0)).isNotEqualTo(allTempKeys.get(1));
+    }
+
+    @Test
+    void closedProductsAreRemovedFromTheirOwnCategoryFeeds() {
+        ranker.remove(List.of(
+                ProductResponse.builder().id(1L).categoryId(2L).build(),
+                ProductResponse.builder().id(3L).categoryId(4L).build(),
+                ProductResponse.builder().id(5L).categoryId(2L).build()));
+
+        verify(zSetOperations).remove(ALL_KEY, "1", "3", "5");
+        verify(zSetOperations).remove("market:feed:2", "1", "5");
+        verify(zSetOperations).remove("market:feed:4", "3");
+    }
+
+    @Test
+    void productClosedElsewhereLeavesEveryFeed() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(true);
+        when(setOperations.members(KEYS_KEY)).thenReturn(Set.of(ALL_KEY, "market:feed:2", "market:feed:4"));
+        when(productMapper.findFeedCandidateById(7L)).thenReturn(null);
+
+        ranker.onProductChanged(new ProductChangedEvent(7L));
+
+        verify(zSetOperations).remove(ALL_KEY, "7");
+        verify(zSetOperations).remove("market:feed:2", "7");
+        verify(zSetOperations).remove("market:feed:4", "7");
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void changedOpenProductIsRescoredInItsFeeds() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(true);
+        when(setOperations.members(KEYS_KEY)).thenReturn(Set.of(ALL_KEY, "market:feed:2", "market:feed:4"));
+        when(productMapper.findFeedCandidateById(7L)).thenReturn(ProductResponse.builder()
+                .id(7L)
+                .categoryId(2L)
+                .createdAt(LocalDateTime.now())
+                .maxParticipants(4)
+                .currentParticipants(4)
+                .dopamine(50)
+                .build());
+
+        ranker.onProductChanged(new ProductChangedEvent(7L));
+
+        // 다른 카테고리 피드에서만 제거하고 전체/자기 카테고리 피드는 새 점수로 갱신
+        verify(zSetOperations).remove("market:feed:4", "7");
+        verify(zSetOperations, never()).remove(eq(ALL_KEY), any(Object[].class));
+        verify(zSetOperations).add(eq(ALL_KEY), eq("7"), anyDouble());
+        verify(zSetOperations).add(eq("market:feed:2"), eq("7"), anyDouble());
+        verify(setOperations).add(KEYS_KEY, "market:feed:2");
+    }
+
+    @Test
+    void productChangesWaitForFirstRebuild() {
+        when(stringRedisTemplate.hasKey(KEYS_KEY)).thenReturn(false);
+
+        ranker.onProductChanged(new ProductChangedEvent(7L));
+
+        verify(productMapper, never()).findFeedCandidateById(anyLong());
+    }
+}